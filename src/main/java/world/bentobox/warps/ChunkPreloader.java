@@ -0,0 +1,144 @@
+package world.bentobox.warps;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+import org.eclipse.jdt.annotation.NonNull;
+
+import world.bentobox.bentobox.util.Util;
+import world.bentobox.warps.registry.WarpRegistry;
+
+/**
+ * Loads the chunks around a warp sign in the background while a player waits for their
+ * teleport, and keeps them loaded with a plugin chunk ticket until the teleport is done.
+ * Tickets are counted, so players warping to the same place do not drop each other's ticket.
+ * Everything here runs on the main thread.
+ *
+ * @author tastybento
+ *
+ */
+public class ChunkPreloader {
+
+    // Ticks to hold chunks after the teleport delay in case the teleport never happens
+    private static final long SLACK = 100L;
+
+    private final Warp addon;
+    // Number of holds on each chunk, by world and packed chunk coordinates
+    private final Map<World, Map<Long, Integer>> tickets = new HashMap<>();
+
+    /**
+     * Chunks held for one teleport
+     */
+    private class Hold implements Runnable {
+        private final World world;
+        private final long[] chunks;
+        private final boolean[] ticketed;
+        private BukkitTask timeout;
+        private boolean released;
+
+        Hold(World world, long[] chunks) {
+            this.world = world;
+            this.chunks = chunks;
+            this.ticketed = new boolean[chunks.length];
+        }
+
+        void loaded(int index) {
+            if (!released) {
+                acquire(world, chunks[index]);
+                ticketed[index] = true;
+            }
+        }
+
+        @Override
+        public void run() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            for (int i = 0; i < chunks.length; i++) {
+                if (ticketed[i]) {
+                    release(world, chunks[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param addon - addon
+     */
+    public ChunkPreloader(Warp addon) {
+        this.addon = addon;
+    }
+
+    /**
+     * Starts loading the chunks a teleport to this warp sign will need. That is the sign's
+     * chunk and any chunk within one block of it, where the safety checks may look.
+     * @param sign - location of the warp sign
+     * @return runnable that releases the chunks. It is safe to run more than once.
+     * If it is never run, the chunks are released after the teleport delay.
+     */
+    @NonNull
+    public Runnable preload(@NonNull Location sign) {
+        World world = sign.getWorld();
+        if (world == null) {
+            return () -> {};
+        }
+        int minX = (sign.getBlockX() - 1) >> 4;
+        int maxX = (sign.getBlockX() + 1) >> 4;
+        int minZ = (sign.getBlockZ() - 1) >> 4;
+        int maxZ = (sign.getBlockZ() + 1) >> 4;
+        long[] chunks = new long[(maxX - minX + 1) * (maxZ - minZ + 1)];
+        int i = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                chunks[i++] = WarpRegistry.chunkKey(x, z);
+            }
+        }
+        Hold hold = new Hold(world, chunks);
+        for (int index = 0; index < chunks.length; index++) {
+            int loaded = index;
+            Util.getChunkAtAsync(world, WarpRegistry.chunkX(chunks[index]), WarpRegistry.chunkZ(chunks[index]))
+            .thenRun(() -> hold.loaded(loaded));
+        }
+        long delay = addon.getPlugin().getSettings().getDelayTime() * 20L + SLACK;
+        hold.timeout = Bukkit.getScheduler().runTaskLater(addon.getPlugin(), hold, delay);
+        return hold;
+    }
+
+    private void acquire(World world, long chunk) {
+        int count = tickets.computeIfAbsent(world, k -> new HashMap<>()).merge(chunk, 1, Integer::sum);
+        if (count == 1) {
+            world.addPluginChunkTicket(WarpRegistry.chunkX(chunk), WarpRegistry.chunkZ(chunk), addon.getPlugin());
+        }
+    }
+
+    private void release(World world, long chunk) {
+        Map<Long, Integer> counts = tickets.get(world);
+        if (counts == null || !counts.containsKey(chunk)) {
+            return;
+        }
+        Integer count = counts.computeIfPresent(chunk, (k, v) -> v == 1 ? null : v - 1);
+        if (count == null) {
+            world.removePluginChunkTicket(WarpRegistry.chunkX(chunk), WarpRegistry.chunkZ(chunk), addon.getPlugin());
+            if (counts.isEmpty()) {
+                tickets.remove(world);
+            }
+        }
+    }
+
+    /**
+     * Releases all chunk tickets
+     */
+    public void releaseAll() {
+        tickets.forEach((world, counts) -> counts.keySet().forEach(chunk ->
+        world.removePluginChunkTicket(WarpRegistry.chunkX(chunk), WarpRegistry.chunkZ(chunk), addon.getPlugin())));
+        tickets.clear();
+    }
+}
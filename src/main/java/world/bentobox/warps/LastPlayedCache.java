@@ -0,0 +1,133 @@
+package world.bentobox.warps;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import org.bukkit.Bukkit;
+
+import world.bentobox.bentobox.database.Database;
+import world.bentobox.warps.objects.LastPlayedData;
+
+/**
+ * Remembers when warp owners last played so sorting warps never has to look up
+ * an {@link org.bukkit.OfflinePlayer}. Players that are not known yet are looked up
+ * once, off the main thread, and after that the cache is kept up to date from
+ * join and quit events. Only warp owners are kept and saved, and saves wait for the
+ * last played save delay because the times only change the order of warps.
+ *
+ * @author tastybento
+ *
+ */
+class LastPlayedCache {
+
+    private static final String LAST_PLAYED = "last-played";
+
+    private final Warp addon;
+    private final Database<LastPlayedData> handler;
+    private final Map<UUID, Long> lastPlayed = new ConcurrentHashMap<>();
+    // Set once the warps it asks about exist
+    private Predicate<UUID> isOwner = uuid -> true;
+    private final SaveScheduler saveScheduler;
+
+    /**
+     * @param addon - addon
+     */
+    LastPlayedCache(Warp addon) {
+        this.addon = addon;
+        handler = new Database<>(addon, LastPlayedData.class);
+        saveScheduler = new SaveScheduler(addon, () -> addon.getSettings().getLastPlayedSaveDelay(), this::write);
+    }
+
+    /**
+     * Sets how to tell warp owners from other players. Until this is set every player is kept.
+     * @param isOwner - tells if a player owns a warp
+     */
+    void setOwners(Predicate<UUID> isOwner) {
+        this.isOwner = isOwner;
+    }
+
+    /**
+     * Loads the saved last played times
+     */
+    void load() {
+        lastPlayed.clear();
+        if (handler.objectExists(LAST_PLAYED)) {
+            LastPlayedData data = handler.loadObject(LAST_PLAYED);
+            if (data != null) {
+                data.getLastPlayed().forEach((uuid, time) -> {
+                    if (uuid != null && time != null) {
+                        lastPlayed.put(uuid, time);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * @param uuid - player's UUID
+     * @return last played time or zero if not known
+     */
+    long get(UUID uuid) {
+        return lastPlayed.getOrDefault(uuid, 0L);
+    }
+
+    /**
+     * @param uuid - player's UUID
+     * @param time - last played time
+     */
+    void set(UUID uuid, long time) {
+        if (!isOwner.test(uuid)) {
+            // Only warp owners are ranked
+            return;
+        }
+        Long previous = lastPlayed.put(uuid, time);
+        if (previous == null || previous != time) {
+            saveScheduler.markDirty();
+        }
+    }
+
+    /**
+     * Looks up the players that are not known yet in the background
+     * @param players - players to look up
+     * @param found - told on the main thread about each player found
+     */
+    void seed(Collection<UUID> players, BiConsumer<UUID, Long> found) {
+        List<UUID> unknown = players.stream().filter(uuid -> !lastPlayed.containsKey(uuid)).toList();
+        if (unknown.isEmpty()) {
+            return;
+        }
+        Bukkit.getScheduler().runTaskAsynchronously(addon.getPlugin(), () -> {
+            Map<UUID, Long> times = new HashMap<>();
+            unknown.forEach(uuid -> times.put(uuid, Bukkit.getOfflinePlayer(uuid).getLastPlayed()));
+            Bukkit.getScheduler().runTask(addon.getPlugin(), () -> {
+                times.forEach((uuid, time) -> {
+                    // Players who joined in the meantime are already up to date
+                    if (lastPlayed.putIfAbsent(uuid, time) == null) {
+                        found.accept(uuid, time);
+                    }
+                });
+                saveScheduler.markDirty();
+            });
+        });
+    }
+
+    /**
+     * Saves now if there are unsaved changes and waits for the database
+     */
+    void flush() {
+        saveScheduler.flushAndWait();
+    }
+
+    private CompletableFuture<Boolean> write() {
+        // Players who no longer own a warp are dropped
+        lastPlayed.keySet().removeIf(isOwner.negate());
+        return handler.saveObjectAsync(new LastPlayedData(LAST_PLAYED, new HashMap<>(lastPlayed)));
+    }
+}
@@ -0,0 +1,123 @@
+package world.bentobox.warps;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Write-behind scheduler for saves. Save requests only mark the data dirty and all requests
+ * made within the save delay are written by one save. Saves always run on the main thread
+ * one after the other, so they reach the database in the order they were made.
+ *
+ * @author tastybento
+ *
+ */
+public class SaveScheduler {
+
+    // Longest time to wait for the database when the addon is disabled
+    private static final long SHUTDOWN_TIMEOUT = 30;
+
+    private final Warp addon;
+    private final IntSupplier delay;
+    private final Supplier<CompletableFuture<Boolean>> save;
+    private boolean dirty;
+    private BukkitTask task;
+
+    /**
+     * @param addon - addon
+     * @param save - the save to run. It gives the result of the save.
+     */
+    public SaveScheduler(Warp addon, Supplier<CompletableFuture<Boolean>> save) {
+        this(addon, () -> addon.getSettings().getSaveDelay(), save);
+    }
+
+    /**
+     * @param addon - addon
+     * @param delay - gives the save delay in ticks
+     * @param save - the save to run. It gives the result of the save.
+     */
+    public SaveScheduler(Warp addon, IntSupplier delay, Supplier<CompletableFuture<Boolean>> save) {
+        this.addon = addon;
+        this.delay = delay;
+        this.save = save;
+    }
+
+    /**
+     * Marks the data as changed. It will be saved when the save delay is over.
+     */
+    public void markDirty() {
+        dirty = true;
+        int ticks = delay.getAsInt();
+        if (ticks <= 0) {
+            flush();
+        } else if (task == null) {
+            task = Bukkit.getScheduler().runTaskLater(addon.getPlugin(), this::flush, ticks);
+        }
+    }
+
+    /**
+     * Saves now if there are unsaved changes
+     * @return result of the save, true if there was nothing to save
+     */
+    public CompletableFuture<Boolean> flush() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        if (dirty) {
+            dirty = false;
+            return save.get();
+        }
+        return CompletableFuture.completedFuture(true);
+    }
+
+    /**
+     * Saves now if there are unsaved changes and waits for the database to write them,
+     * so nothing is lost when the addon is disabled
+     * @return true if the save was done
+     */
+    public boolean flushAndWait() {
+        return await(addon, flush());
+    }
+
+    /**
+     * @return true if there are unsaved changes
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Combines the results of several saves
+     * @param saves - results of the saves
+     * @return true when all the saves are done and worked
+     */
+    static CompletableFuture<Boolean> allSaved(List<CompletableFuture<Boolean>> saves) {
+        return CompletableFuture.allOf(saves.toArray(CompletableFuture[]::new))
+                .thenApply(v -> saves.stream().allMatch(s -> Boolean.TRUE.equals(s.join())));
+    }
+
+    /**
+     * Waits for a save to be done
+     * @param addon - addon
+     * @param result - result of the save
+     * @return true if the save was done
+     */
+    static boolean await(Warp addon, CompletableFuture<Boolean> result) {
+        try {
+            return Boolean.TRUE.equals(result.get(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            addon.logError("Warps could not be saved: " + e.getMessage());
+        }
+        return false;
+    }
+}
@@ -1,6 +1,7 @@
 package world.bentobox.warps;
 
 import java.util.List;
+import java.util.Objects;
 
 import org.bukkit.Material;
 
@@ -53,5 +54,21 @@ public class SignCacheItem {
         return getType() != null;
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(signText, type);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SignCacheItem other)) {
+            return false;
+        }
+        return Objects.equals(signText, other.signText) && type == other.type;
+    }
+
 
 }
\ No newline at end of file
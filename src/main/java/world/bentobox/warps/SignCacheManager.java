@@ -1,10 +1,19 @@
 package world.bentobox.warps;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.eclipse.jdt.annotation.NonNull;
@@ -12,58 +21,247 @@ import org.eclipse.jdt.annotation.NonNull;
 import world.bentobox.bentobox.database.Database;
 import world.bentobox.warps.objects.SignCache;
 
+/**
+ * Caches the text and icon of warp signs for the warps panel. The cache holds at most the
+ * number of signs set in the config and drops the least recently used sign when it is full.
+ * A dropped sign is read again from the world the next time it is needed, or from the database
+ * if its chunk is not loaded, so the panel never loads chunks. Signs that are in neither show as
+ * a plain sign until their chunk is loaded.
+ * <p>
+ * Signs are saved in one database document per world. Only the documents of worlds whose signs
+ * changed since the last save are written, and the changes are merged into the stored document
+ * so signs that are no longer cached are kept.
+ *
+ */
 public class SignCacheManager {
-    private final Map<World, Map<UUID, SignCacheItem>> cachedSigns = new HashMap<>();
+
+    private record Key(World world, UUID owner) {}
+
+    // Shown for signs in chunks that are not loaded
+    static final SignCacheItem PLACEHOLDER = new SignCacheItem(Collections.emptyList(), Material.OAK_SIGN);
+
+    // Least recently used first
+    private final LinkedHashMap<Key, SignCacheItem> cachedSigns = new LinkedHashMap<>(16, 0.75F, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, SignCacheItem> eldest) {
+            if (size() > addon.getSettings().getSignCacheSize()) {
+                // Signs that do not fit when the cache is loaded are not evictions
+                if (loaded) {
+                    evictions++;
+                    evicted.accept(eldest.getKey().world(), eldest.getKey().owner());
+                }
+                return true;
+            }
+            return false;
+        }
+    };
+    // Signs that changed since the last save, by world. Empty if the sign was removed
+    private final Map<World, Map<UUID, Optional<SignCacheItem>>> changes = new HashMap<>();
+    // Documents being written, by world. Newer than what the database gives until the writes are done
+    private final Map<World, Map<UUID, SignCacheItem>> saving = new ConcurrentHashMap<>();
+    // Documents read from the database this tick, so a page of misses reads each document once
+    private final Map<World, Map<UUID, SignCacheItem>> stored = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long documentsWritten;
+    private long bytesWritten;
+    private boolean loaded;
     private final Warp addon;
+    // Told about signs dropped from the cache because it was full
+    private final BiConsumer<World, UUID> evicted;
     // Database handler for level data
     private final Database<SignCache> handler;
+    // Coalesces saves
+    private final SaveScheduler saveScheduler;
 
     public SignCacheManager(Warp addon) {
+        this(addon, (world, owner) -> {});
+    }
+
+    /**
+     * @param addon - addon
+     * @param evicted - told the world and owner of each sign dropped from the cache because it was full
+     */
+    public SignCacheManager(Warp addon, BiConsumer<World, UUID> evicted) {
         this.addon = addon;
+        this.evicted = evicted;
         handler = new Database<>(addon, SignCache.class);
+        saveScheduler = new SaveScheduler(addon, this::writeCache);
         // Load the sign caches
         loadCache();
     }
 
     private void loadCache() {
+        loaded = false;
         cachedSigns.clear();
+        changes.clear();
         handler.loadObjects().forEach(w -> {
             World world = Bukkit.getWorld(w.getUniqueId());
             if (world != null) {
-                w.getSigns().values().removeIf(sci -> sci.getType().equals(Material.AIR));
-                cachedSigns.put(world, w.getSigns());
+                w.getSigns().forEach((owner, sci) -> {
+                    if (owner != null && sci != null && !sci.getType().equals(Material.AIR)) {
+                        cachedSigns.put(new Key(world, owner), sci);
+                    }
+                });
             }
         });
+        loaded = true;
     }
 
+    /**
+     * Saves the cache after the save delay if it has unsaved changes
+     */
     void saveCache() {
-        cachedSigns.forEach((w, m) -> handler.saveObjectAsync(new SignCache(w, m)));
+        if (!changes.isEmpty()) {
+            saveScheduler.markDirty();
+        }
+    }
+
+    /**
+     * Records that the sign of an owner changed, so its world will be saved
+     * @param key - world and owner
+     * @param item - new sign, or empty if the sign was removed
+     */
+    private void changed(Key key, Optional<SignCacheItem> item) {
+        changes.computeIfAbsent(key.world(), k -> new HashMap<>()).put(key.owner(), item);
     }
 
     /**
-     * Get the sign item from cache or get it from the world if it is not in the cache
+     * Gets the signs of a world as they are, or soon will be, in the database
+     * @param world - world
+     * @return signs by owner. Do not change.
+     */
+    private Map<UUID, SignCacheItem> getStored(World world) {
+        Map<UUID, SignCacheItem> result = saving.get(world);
+        if (result != null) {
+            return result;
+        }
+        result = stored.get(world);
+        if (result == null) {
+            result = Collections.emptyMap();
+            if (handler.objectExists(world.getName())) {
+                SignCache data = handler.loadObject(world.getName());
+                if (data != null && data.getSigns() != null) {
+                    result = data.getSigns();
+                }
+            }
+            if (stored.isEmpty()) {
+                Bukkit.getScheduler().runTask(addon.getPlugin(), stored::clear);
+            }
+            stored.put(world, result);
+        }
+        return result;
+    }
+
+    /**
+     * Saves the cache now if it has unsaved changes and waits for the database
+     */
+    void flushCache() {
+        saveScheduler.flushAndWait();
+        if (!changes.isEmpty()) {
+            SaveScheduler.await(addon, writeCache());
+        }
+    }
+
+    private CompletableFuture<Boolean> writeCache() {
+        List<CompletableFuture<Boolean>> saves = new ArrayList<>();
+        changes.forEach((w, changedSigns) -> {
+            Map<UUID, SignCacheItem> signs = new HashMap<>(getStored(w));
+            changedSigns.forEach((owner, sci) -> sci.ifPresentOrElse(s -> signs.put(owner, s), () -> signs.remove(owner)));
+            saving.put(w, signs);
+            CompletableFuture<Boolean> save = handler.saveObjectAsync(new SignCache(w, signs));
+            save.whenComplete((saved, e) -> saving.remove(w, signs));
+            saves.add(save);
+            documentsWritten++;
+            bytesWritten += estimateSize(signs);
+        });
+        changes.clear();
+        stored.clear();
+        return SaveScheduler.allSaved(saves);
+    }
+
+    /**
+     * Estimates the size of a sign cache document from the length of its text
+     * @param signs - signs in the document
+     * @return approximate number of bytes
+     */
+    private static long estimateSize(Map<UUID, SignCacheItem> signs) {
+        long size = 0;
+        for (SignCacheItem sci : signs.values()) {
+            // UUID key
+            size += 36;
+            size += sci.getType().name().length();
+            for (String line : sci.getSignText()) {
+                size += line.length();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Get the sign item from cache or get it from the world if it is not in the cache.
+     * If the sign is not cached and its chunk is not loaded, it is read from the database
+     * instead of loading the chunk, or a placeholder is returned if it is not there either.
      * @param world - world
      * @param warpOwner - warp owner
      * @return SignCacheItem
      */
     @NonNull
     SignCacheItem getSignItem(World world, UUID warpOwner) {
-        // Add the worlds if we haven't seen this before
-        cachedSigns.putIfAbsent(world, new HashMap<>());
+        Key key = new Key(world, warpOwner);
         // Get from cache if available
-        if (cachedSigns.get(world).containsKey(warpOwner)) {
-            return cachedSigns.get(world).get(warpOwner);
+        SignCacheItem result = cachedSigns.get(key);
+        if (result != null) {
+            hits++;
+            return result;
+        }
+        misses++;
+        // Dropped from the cache before it was saved
+        Optional<SignCacheItem> unsaved = changes.getOrDefault(world, Collections.emptyMap()).get(warpOwner);
+        if (unsaved != null && unsaved.isPresent()) {
+            cachedSigns.put(key, unsaved.get());
+            return unsaved.get();
+        }
+        Location location = addon.getWarpSignsManager().getWarp(world, warpOwner);
+        if (location != null && location.getWorld() != null
+                && !location.getWorld().isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+            result = unsaved == null ? getStored(world).get(warpOwner) : null;
+            if (result == null) {
+                return PLACEHOLDER;
+            }
+            cachedSigns.put(key, result);
+            return result;
         }
         // Generate and add to cache
-        SignCacheItem result = addon.getWarpSignsManager().getSignInfo(world, warpOwner);
+        result = addon.getWarpSignsManager().getSignInfo(world, warpOwner);
         if (result.isReal()) {
-            cachedSigns.get(world).put(warpOwner, result);
-        } else {
-            cachedSigns.get(world).remove(warpOwner);
+            cachedSigns.put(key, result);
+            changed(key, Optional.of(result));
         }
         return result;
     }
 
+    /**
+     * Puts the current text of a warp sign in the cache, e.g., after the sign was edited
+     * @param world - world
+     * @param warpOwner - warp owner
+     * @param item - sign text and type
+     */
+    void updateSign(World world, UUID warpOwner, SignCacheItem item) {
+        if (!item.isReal()) {
+            removeWarp(world, warpOwner);
+            return;
+        }
+        Key key = new Key(world, warpOwner);
+        if (!item.equals(cachedSigns.put(key, item))) {
+            changed(key, Optional.of(item));
+            saveCache();
+        }
+    }
+
     /**
      * Removes sign text from the cache
      * @param world - world
@@ -71,10 +269,52 @@ public class SignCacheManager {
      * @return true if item is removed from cache
      */
     boolean removeWarp(World world, UUID key) {
-        if (cachedSigns.containsKey(world)) {
-            return cachedSigns.get(world).remove(key) != null;
-        }
-        return false;
+        Key k = new Key(world, key);
+        // The sign may be saved even if it is no longer cached
+        changed(k, Optional.empty());
+        return cachedSigns.remove(k) != null;
+    }
+
+    /**
+     * @return number of signs in the cache
+     */
+    public int getSize() {
+        return cachedSigns.size();
+    }
+
+    /**
+     * @return number of times a sign was found in the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of times a sign had to be read from the world
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of signs dropped from the cache because it was full
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return number of sign cache documents written to the database
+     */
+    public long getDocumentsWritten() {
+        return documentsWritten;
+    }
+
+    /**
+     * @return approximate number of bytes of sign cache documents written to the database
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
     }
 
 }
@@ -1,12 +1,18 @@
 package world.bentobox.warps;
 
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.World;
 
 import world.bentobox.bentobox.api.addons.Addon;
@@ -16,7 +22,12 @@ import world.bentobox.level.Level;
 import world.bentobox.warps.commands.WarpCommand;
 import world.bentobox.warps.commands.WarpsCommand;
 import world.bentobox.warps.config.Settings;
+import world.bentobox.warps.listeners.BlockChangeListener;
+import world.bentobox.warps.listeners.PlayerListener;
 import world.bentobox.warps.listeners.WarpSignsListener;
+import world.bentobox.warps.registry.WarpChangeFeed;
+import world.bentobox.warps.registry.WarpDelta;
+import world.bentobox.warps.registry.WarpSnapshot;
 
 /**
  * Addin to BentoBox that enables welcome warp signs
@@ -38,6 +49,12 @@ public class Warp extends Addon {
      */
     public static final String WELCOME_WARP_SIGNS = "welcomewarpsigns";
 
+    /**
+     * Page sizes for the getWarpPage request
+     */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     /**
      * Warp panel Manager
      */
@@ -104,6 +121,10 @@ public class Warp extends Addon {
             this.warpSignsManager.saveWarpList();
 
             this.loadSettings();
+            // The default icon may have changed
+            this.warpSignsManager.clearIcons();
+            // The name format and translations may have changed
+            this.warpPanelManager.clearPanelItems();
             this.getLogger().info("Warps addon reloaded.");
         }
     }
@@ -137,8 +158,12 @@ public class Warp extends Addon {
             // Start warp signs
             warpSignsManager = new WarpSignsManager(this, this.getPlugin());
             warpPanelManager = new WarpPanelManager(this);
+            // Check the loaded warp signs in the background
+            warpSignsManager.startValidation();
             // Load the listener
             this.registerListener(new WarpSignsListener(this));
+            this.registerListener(new PlayerListener(this));
+            this.registerListener(new BlockChangeListener(this));
         } else {
             logWarning("Addon did not hook into anything and is not running stand-alone");
             this.setState(State.DISABLED);
@@ -150,7 +175,7 @@ public class Warp extends Addon {
     public void onDisable(){
         // Save the warps
         if (warpSignsManager != null) {
-            warpSignsManager.saveWarpList();
+            warpSignsManager.flushSaves();
         }
     }
 
@@ -229,10 +254,27 @@ public class Warp extends Addon {
      *
      * This API enables plugins to request data from the WarpSignsManager
      *
+     * Everything returned is immutable. Besides the single world requests, these help
+     * plugins that poll:
+     * getVersion - version of the warps in "world", it goes up on every change
+     * getSnapshot - map with "version" and "warps" (owner to location) for "world"
+     * getSnapshots - map of world name to snapshot for a list of world names in "worlds"
+     * getWarpPage - map with "version" and "warps" for one "page" of "size" warps in "world",
+     *               optionally only owners whose name starts with "filter"
+     * getChangesSince - map with "version" and "changes" made in "world" after "version",
+     *                   or "resync" true if the changes are no longer kept
+     * readChangeFeed - map with "changes" in all worlds after "cursor", up to "max", and the
+     *                  "cursor" to use next. If "resync" is true, take new snapshots first.
      */
     @Override
     public Object request(String requestLabel, Map<String, Object> metaData) {
         if (metaData.isEmpty()) return null;
+        if (requestLabel.equals("getSnapshots")) {
+            return getSnapshots(metaData.get("worlds"));
+        }
+        if (requestLabel.equals("readChangeFeed")) {
+            return readChangeFeed(metaData);
+        }
         World world = null;
         UUID uuid = null;
         // Parse keys
@@ -254,9 +296,87 @@ public class Warp extends Addon {
             case "getWarpMap" -> getWarpSignsManager().getWarpMap(world);
             case "hasWarp" -> uuid == null ? null : getWarpSignsManager().hasWarp(world, uuid);
             case "listWarps" -> getWarpSignsManager().listWarps(world);
+            case "getVersion" -> getWarpSignsManager().getWarpVersion(world);
+            case "getSnapshot" -> getSnapshot(world);
+            case "getWarpPage" -> getWarpPage(world, metaData);
+            case "getChangesSince" -> getChangesSince(world, metaData.get("version"));
             default -> null;
         };
 
     }
 
+    private Map<String, Object> getSnapshot(World world) {
+        WarpSnapshot snapshot = getWarpSignsManager().getWarpSnapshot(world);
+        return Map.of("version", snapshot.getVersion(), "warps", snapshot.toMap());
+    }
+
+    private Map<String, Object> getSnapshots(Object worlds) {
+        if (!(worlds instanceof Collection<?> names)) {
+            logError("Requested worlds must be a list of world names");
+            return null;
+        }
+        Map<String, Object> result = new HashMap<>();
+        for (Object name : names) {
+            World world = name == null ? null : Bukkit.getWorld(name.toString());
+            if (world != null) {
+                result.put(world.getName(), getSnapshot(world));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private Map<String, Object> getWarpPage(World world, Map<String, Object> metaData) {
+        int page = metaData.get("page") instanceof Number n ? n.intValue() : 0;
+        int size = metaData.get("size") instanceof Number n ? Math.min(n.intValue(), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        String filter = metaData.get("filter") instanceof String f ? f : null;
+        long version = getWarpSignsManager().getWarpVersion(world);
+        Map<UUID, Location> warps = new LinkedHashMap<>();
+        for (UUID owner : getWarpSignsManager().getWarpPage(world, filter, page, size)) {
+            Location location = getWarpSignsManager().getWarp(world, owner);
+            if (location != null) {
+                warps.put(owner, location);
+            }
+        }
+        return Map.of("version", version, "warps", Collections.unmodifiableMap(warps));
+    }
+
+    private Map<String, Object> getChangesSince(World world, Object since) {
+        if (!(since instanceof Number version)) {
+            logError("Requested version is invalid");
+            return null;
+        }
+        List<WarpDelta> changes = getWarpSignsManager().getChangesSince(world, version.longValue());
+        if (changes == null) {
+            return Map.of("resync", true, "version", getWarpSignsManager().getWarpVersion(world));
+        }
+        List<Map<String, Object>> result = changes.stream().map(change -> Map.<String, Object>of(
+                "version", change.getVersion(),
+                "owner", change.getOwner(),
+                "removed", change.isRemoved(),
+                "location", change.getLocation())).toList();
+        long latest = changes.isEmpty() ? version.longValue() : changes.get(changes.size() - 1).getVersion();
+        return Map.of("resync", false, "version", latest, "changes", result);
+    }
+
+    private Map<String, Object> readChangeFeed(Map<String, Object> metaData) {
+        if (!(metaData.get("cursor") instanceof Number cursor)) {
+            logError("Requested cursor is invalid");
+            return null;
+        }
+        int max = metaData.get("max") instanceof Number n ? Math.min(n.intValue(), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        WarpChangeFeed.Batch batch = getWarpSignsManager().getChangeFeed().read(cursor.longValue(), max);
+        List<Map<String, Object>> result = batch.changes().stream().map(change -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put("sequence", change.getSequence());
+            map.put("type", change.getType().name());
+            map.put("owner", change.getOwner());
+            map.put("location", change.getLocation());
+            if (change.getFrom() != null) {
+                map.put("from", change.getFrom());
+            }
+            return Collections.unmodifiableMap(map);
+        }).toList();
+        return Map.of("resync", batch.resync(), "cursor", batch.cursor(), "changes", result);
+    }
+
 }
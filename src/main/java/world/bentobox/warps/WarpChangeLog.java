@@ -0,0 +1,180 @@
+package world.bentobox.warps;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.eclipse.jdt.annotation.NonNull;
+
+import world.bentobox.bentobox.database.Database;
+import world.bentobox.warps.objects.WarpChange;
+import world.bentobox.warps.registry.WarpRegistry;
+
+/**
+ * Append-only log of warp changes made since the last full save of the warps.
+ * Each change is its own small database object so a save only writes what changed.
+ * It also tracks which worlds changed so a full save only writes those worlds.
+ * <p>
+ * Each full save of a world records the sequence number of the next change, so changes that are
+ * already part of it are not replayed even if deleting their log entries did not finish.
+ * Methods are synchronized because the outcome of a full save is handled on the database thread.
+ *
+ * @author tastybento
+ *
+ */
+class WarpChangeLog {
+
+    private final Warp addon;
+    private final Database<WarpChange> handler;
+    // Changes not yet written
+    private final List<WarpChange> pending = new ArrayList<>();
+    // Ids of changes written since the last full save
+    private final List<String> written = new ArrayList<>();
+    // Worlds changed since the last full save
+    private final Set<World> changedWorlds = new HashSet<>();
+    private long nextSequence;
+
+    WarpChangeLog(Warp addon) {
+        this.addon = addon;
+        handler = new Database<>(addon, WarpChange.class);
+    }
+
+    /**
+     * Loads the changes written since the last full save and applies them in the order they were made.
+     * Changes that are already part of the saved warps of their world are not applied and their log
+     * entries are deleted at the next full save. Changes that cannot be applied yet, for example
+     * because their world is not loaded, stay in the log.
+     * @param saved - world names and the sequence number their saved warps were written at
+     * @param apply - applies a change and returns the world it changed, or null if it could not be applied
+     */
+    synchronized void load(@NonNull Map<String, Long> saved, @NonNull Function<WarpChange, World> apply) {
+        pending.clear();
+        written.clear();
+        changedWorlds.clear();
+        List<WarpChange> changes = new ArrayList<>(handler.loadObjects());
+        changes.sort(Comparator.comparingLong(WarpChange::getSequence));
+        changes.forEach(c -> {
+            if (c.getSequence() < saved.getOrDefault(c.getWorld(), 0L)) {
+                written.add(c.getUniqueId());
+                return;
+            }
+            World world = apply.apply(c);
+            if (world != null) {
+                written.add(c.getUniqueId());
+                changedWorlds.add(world);
+            }
+        });
+        nextSequence = changes.isEmpty() ? 0 : changes.get(changes.size() - 1).getSequence() + 1;
+        // Deleted log entries must not have their sequence numbers used again
+        saved.values().forEach(sequence -> nextSequence = Math.max(nextSequence, sequence));
+    }
+
+    /**
+     * @return sequence number the next change will get. A full save started now includes every change before it.
+     */
+    synchronized long getSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Records that a warp was placed
+     * @param owner - warp owner
+     * @param loc - location of the warp sign
+     */
+    synchronized void put(@NonNull UUID owner, @NonNull Location loc) {
+        World world = loc.getWorld();
+        if (world != null) {
+            pending.add(new WarpChange(nextSequence++, owner, world.getName(), WarpRegistry.pack(loc), false));
+            changedWorlds.add(world);
+        }
+    }
+
+    /**
+     * Records that a warp was removed
+     * @param owner - warp owner
+     * @param loc - location of the removed warp sign
+     */
+    synchronized void remove(@NonNull UUID owner, @NonNull Location loc) {
+        World world = loc.getWorld();
+        if (world != null) {
+            pending.add(new WarpChange(nextSequence++, owner, world.getName(), WarpRegistry.pack(loc), true));
+            changedWorlds.add(world);
+        }
+    }
+
+    /**
+     * Writes any pending changes
+     * @return true when all the changes have been written
+     */
+    synchronized CompletableFuture<Boolean> flush() {
+        List<CompletableFuture<Boolean>> saves = new ArrayList<>();
+        pending.forEach(change -> {
+            saves.add(handler.saveObjectAsync(change));
+            written.add(change.getUniqueId());
+        });
+        pending.clear();
+        return SaveScheduler.allSaved(saves);
+    }
+
+    /**
+     * @return number of changes since the last full save
+     */
+    synchronized int size() {
+        return pending.size() + written.size();
+    }
+
+    /**
+     * Marks a world as changed without logging a change, so it is written at the next full save
+     * @param world - world
+     */
+    synchronized void markChanged(@NonNull World world) {
+        changedWorlds.add(world);
+    }
+
+    /**
+     * @return worlds changed since the last full save
+     */
+    @NonNull
+    synchronized Set<World> getChangedWorlds() {
+        return new HashSet<>(changedWorlds);
+    }
+
+    /**
+     * Called when a full save of the changed worlds has been started. All changes so far are part of it.
+     * Once the full save is done their log entries are deleted. If it fails, the changes and their worlds
+     * are put back so the next full save writes them again.
+     * @param fullSave - result of the full save
+     */
+    synchronized void compacted(@NonNull CompletableFuture<Boolean> fullSave) {
+        List<String> ids = new ArrayList<>(written);
+        List<WarpChange> unwritten = new ArrayList<>(pending);
+        Set<World> worlds = new HashSet<>(changedWorlds);
+        // Changes made while the full save runs are not part of it
+        written.clear();
+        pending.clear();
+        changedWorlds.clear();
+        fullSave.thenAccept(saved -> {
+            if (Boolean.TRUE.equals(saved)) {
+                ids.forEach(handler::deleteID);
+            } else {
+                retry(ids, unwritten, worlds);
+            }
+        });
+    }
+
+    private synchronized void retry(List<String> ids, List<WarpChange> unwritten, Set<World> worlds) {
+        // The log entries are kept and will be replayed at the next load
+        addon.logWarning("Warps could not be saved! Keeping " + (ids.size() + unwritten.size()) + " changes.");
+        written.addAll(0, ids);
+        pending.addAll(0, unwritten);
+        changedWorlds.addAll(worlds);
+    }
+}
@@ -1,18 +1,27 @@
 package world.bentobox.warps;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.command.Command;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.inventory.ItemStack;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 
 import world.bentobox.bentobox.api.panels.PanelItem;
+import world.bentobox.bentobox.api.panels.PanelListener;
 import world.bentobox.bentobox.api.panels.builders.PanelBuilder;
 import world.bentobox.bentobox.api.panels.builders.PanelItemBuilder;
 import world.bentobox.bentobox.api.user.User;
@@ -20,24 +29,124 @@ import world.bentobox.bentobox.api.user.User;
 public class WarpPanelManager {
 
     private static final int PANEL_MAX_SIZE = 52;
+    // How long the warps of an open panel are kept
+    private static final long SESSION_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
     private final Warp addon;
     // This is a cache of signs
     private final SignCacheManager signCacheManager;
 
+    /**
+     * What the panel item of a warp is made from. Panel items can be changed by whoever shows
+     * them, so a new one is made for each panel from these.
+     * @param sign - cached sign the item shows
+     * @param name - item name with the owner's name
+     * @param ownerName - owner's name for player head icons
+     */
+    private record WarpItem(SignCacheItem sign, String name, String ownerName) {}
+    private record TranslationKey(Locale locale, String reference) {}
+
+    // What the panel items of warps are made from, made again when the cached sign changes.
+    // Dropped with the sign when it is dropped from the sign cache
+    private final Map<World, Map<UUID, WarpItem>> warpItems = new HashMap<>();
+    // Translations of the panel buttons
+    private final Map<TranslationKey, String> translations = new HashMap<>();
+    // Warps shown in the open panel of each player
+    private final Map<UUID, PanelSession> sessions = new HashMap<>();
+
+    /**
+     * The warps shown in a player's panel, in the order they were shown when it was opened,
+     * so turning the page does not have to get and sort them again
+     */
+    static class PanelSession {
+        private final World world;
+        private final List<UUID> warps;
+        private final long created = System.currentTimeMillis();
+
+        PanelSession(World world, List<UUID> warps) {
+            this.world = world;
+            this.warps = warps;
+        }
+
+        World getWorld() {
+            return world;
+        }
+
+        List<UUID> getWarps() {
+            return warps;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - created > SESSION_TIMEOUT;
+        }
+    }
+
+    /**
+     * Ends the panel session when the panel is closed
+     */
+    private class SessionListener implements PanelListener {
+        private final PanelSession session;
+
+        SessionListener(PanelSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public void setup() {
+            // Nothing to set up
+        }
+
+        @Override
+        public void onInventoryClose(InventoryCloseEvent event) {
+            sessions.remove(event.getPlayer().getUniqueId(), session);
+        }
+
+        @Override
+        public void onInventoryClick(User user, InventoryClickEvent event) {
+            // Clicks are handled by the panel items
+        }
+    }
+
     public WarpPanelManager(Warp addon) {
         this.addon = addon;
-        signCacheManager = new SignCacheManager(addon);
+        signCacheManager = new SignCacheManager(addon, this::removeWarpItem);
     }
 
-    private PanelItem getPanelItem(World world, UUID warpOwner, SignCacheItem sign) {
+    private WarpItem getWarpItem(World world, UUID warpOwner, SignCacheItem sign) {
+        if (sign == SignCacheManager.PLACEHOLDER) {
+            // Not in the sign cache, so not kept here either
+            return makeWarpItem(warpOwner, sign);
+        }
+        Map<UUID, WarpItem> items = warpItems.computeIfAbsent(world, k -> new HashMap<>());
+        WarpItem warpItem = items.get(warpOwner);
+        // The sign cache puts in a new item whenever a sign changes
+        if (warpItem == null || warpItem.sign() != sign) {
+            warpItem = makeWarpItem(warpOwner, sign);
+            items.put(warpOwner, warpItem);
+        }
+        return warpItem;
+    }
+
+    private WarpItem makeWarpItem(UUID warpOwner, SignCacheItem sign) {
+        String ownerName = addon.getPlugin().getPlayers().getName(warpOwner);
+        return new WarpItem(sign, addon.getSettings().getNameFormat() + ownerName, ownerName);
+    }
+
+    private void removeWarpItem(World world, UUID warpOwner) {
+        Map<UUID, WarpItem> items = warpItems.get(world);
+        if (items != null) {
+            items.remove(warpOwner);
+        }
+    }
 
+    private PanelItem getPanelItem(World world, UUID warpOwner, SignCacheItem sign) {
+        WarpItem warpItem = getWarpItem(world, warpOwner, sign);
         PanelItemBuilder pib = new PanelItemBuilder()
-                .name(addon.getSettings().getNameFormat() + addon.getPlugin().getPlayers().getName(warpOwner))
+                .name(warpItem.name())
                 .description(sign.getSignText())
                 .clickHandler((panel, clicker, click, slot) -> hander(world, clicker, warpOwner));
         Material icon = sign.getType();
         if (icon.equals(Material.PLAYER_HEAD)) {
-            return pib.icon(addon.getPlayers().getName(warpOwner)).build();
+            return pib.icon(warpItem.ownerName()).build();
         } else {
             return pib.icon(icon).build();
         }
@@ -51,9 +160,29 @@ public class WarpPanelManager {
         return true;
     }
 
+    /**
+     * Gets a translation for the user's locale, translating it only the first time.
+     * Text with placeholders is translated every time because it can differ for each user.
+     * @param user - user
+     * @param reference - reference to the translation
+     * @return translated text
+     */
+    private String getTranslation(User user, String reference) {
+        TranslationKey key = new TranslationKey(user.getLocale(), reference);
+        String result = translations.get(key);
+        if (result == null) {
+            result = user.getTranslation(reference);
+            String raw = addon.getPlugin().getLocalesManager().get(user, reference);
+            if (raw == null || !raw.contains("%")) {
+                translations.put(key, result);
+            }
+        }
+        return result;
+    }
+
     private PanelItem getRandomButton(World world, User user, UUID warpOwner) {
         return new PanelItemBuilder()
-                .name(addon.getSettings().getNameFormat() + user.getTranslation("warps.random"))
+                .name(addon.getSettings().getNameFormat() + getTranslation(user, "warps.random"))
                 .clickHandler((panel, clicker, click, slot) -> hander(world, clicker, warpOwner))
                 .icon(Material.END_CRYSTAL).build();
     }
@@ -68,7 +197,7 @@ public class WarpPanelManager {
 
         PanelBuilder panelBuilder = new PanelBuilder()
                 .user(user)
-                .name(user.getTranslation("warps.title") + " " + (index + 1));
+                .name(getTranslation(user, "warps.title") + " " + (index + 1));
 
         buildPanel(panelBuilder, user, index, world).thenRun(panelBuilder::build);
     }
@@ -80,28 +209,74 @@ public class WarpPanelManager {
     }
 
     void processSigns(CompletableFuture<Void> r, PanelBuilder panelBuilder, User user, int index, World world) {
-        addon.getWarpSignsManager().getSortedWarps(world).thenAccept(warps -> {
-            // Cache and clean the signs
-            Iterator<UUID> it = warps.iterator();
-            while(it.hasNext()) {
-                UUID warpOwner = it.next();
-                @NonNull
-                SignCacheItem sign = signCacheManager.getSignItem(world, warpOwner);
-                if (!sign.isReal()) {
-                    it.remove();
-                    addon.getWarpSignsManager().removeWarpFromMap(world, warpOwner);
-                }
-            }
+        addon.getWarpSignsManager().getSortedWarps(world).thenAccept(sorted -> {
+            // The random warp is added to the list, so use a copy
+            List<UUID> warps = new ArrayList<>(sorted);
             // Add random warp
             getRandomWarp(warps);
-            // Build the main body
-            int i = buildMainBody(panelBuilder, user, index, world, warps);
-            // Add navigation
-            addNavigation(panelBuilder, user, world, i, index, warps.size());
+            // Keep the order for the pages of this panel
+            sessions.values().removeIf(PanelSession::isExpired);
+            PanelSession session = new PanelSession(world, warps);
+            sessions.put(user.getUniqueId(), session);
+            buildPage(panelBuilder, user, index, session);
             r.complete(null);
         });
     }
 
+    /**
+     * Builds a page of the panel from the warps of a panel session
+     * @param panelBuilder - panel builder
+     * @param user - user
+     * @param index - page to show - 0 is first
+     * @param session - panel session of the user
+     */
+    void buildPage(PanelBuilder panelBuilder, User user, int index, PanelSession session) {
+        World world = session.getWorld();
+        List<UUID> warps = session.getWarps();
+        // Build the main body. Only the signs on this page are looked up.
+        int i = buildMainBody(panelBuilder, user, index, world, warps);
+        // Add navigation
+        addNavigation(panelBuilder, user, world, i, index, warps.size());
+        panelBuilder.listener(new SessionListener(session));
+        // Get the signs of the next page ready
+        if (addon.getSettings().isPrefetchNextPage() && i < warps.size()) {
+            List<UUID> next = List.copyOf(warps.subList(i, Math.min(i + PANEL_MAX_SIZE, warps.size())));
+            Bukkit.getScheduler().runTask(addon.getPlugin(), () -> prefetch(world, next));
+        }
+    }
+
+    /**
+     * Shows another page of the panel. The warps of the user's panel session are used if it is
+     * still live, otherwise they are looked up again.
+     * @param session - panel session of the user or null if there is none
+     * @param world - world
+     * @param user - user
+     * @param index - page to show - 0 is first
+     */
+    private void turnPage(@Nullable PanelSession session, World world, User user, int index) {
+        if (session == null || session.isExpired() || !session.getWorld().equals(world)) {
+            showWarpPanel(world, user, index);
+            return;
+        }
+        sessions.put(user.getUniqueId(), session);
+        PanelBuilder panelBuilder = new PanelBuilder()
+                .user(user)
+                .name(getTranslation(user, "warps.title") + " " + (index + 1));
+        buildPage(panelBuilder, user, index, session);
+        panelBuilder.build();
+    }
+
+    /**
+     * Gets the live panel session of a user
+     * @param user - user
+     * @return panel session or null if the user has none
+     */
+    @Nullable
+    PanelSession getSession(User user) {
+        PanelSession session = sessions.get(user.getUniqueId());
+        return session == null || session.isExpired() ? null : session;
+    }
+
     private void getRandomWarp(List<UUID> warps) {
         // Add random warp
         if (!warps.isEmpty() && addon.getSettings().isRandomAllowed()) {
@@ -109,6 +284,16 @@ public class WarpPanelManager {
         }
     }
 
+    /**
+     * Adds the warps on a page to the panel. Warps whose signs are gone are left out and
+     * removed after this tick.
+     * @param panelBuilder - panel builder
+     * @param user - user
+     * @param index - page to show - 0 is first
+     * @param world - world
+     * @param warps - all the warps, in the order they are shown
+     * @return index in warps after the last warp on the page
+     */
     int buildMainBody(PanelBuilder panelBuilder, User user, int index, World world, List<UUID> warps) {
         if (index < 0) {
             index = 0;
@@ -116,8 +301,10 @@ public class WarpPanelManager {
             index = warps.size() / PANEL_MAX_SIZE;
         }
 
+        List<UUID> missing = new ArrayList<>();
         int i = index * PANEL_MAX_SIZE;
-        for (; panelBuilder.getItems().size() < PANEL_MAX_SIZE && i < warps.size(); i++) {
+        int end = Math.min(i + PANEL_MAX_SIZE, warps.size());
+        for (; i < end; i++) {
             UUID warpOwner = warps.get(i);
             if (addon.getSettings().isRandomAllowed() && i == 0) {
                 panelBuilder.item(getRandomButton(world, user, warpOwner));
@@ -127,13 +314,44 @@ public class WarpPanelManager {
                 if (sign.isReal()) {
                     panelBuilder.item(getPanelItem(world, warpOwner, sign));
                 } else {
-                    addon.getWarpSignsManager().removeWarpFromMap(world, warpOwner);
+                    missing.add(warpOwner);
                 }
             }
         }
+        cleanUp(world, missing);
         return i;
     }
 
+    /**
+     * Looks up the signs of warps so they are in the cache when they are shown
+     * @param world - world
+     * @param warps - warps to look up
+     */
+    private void prefetch(World world, List<UUID> warps) {
+        List<UUID> missing = new ArrayList<>();
+        for (UUID warpOwner : warps) {
+            if (!signCacheManager.getSignItem(world, warpOwner).isReal()) {
+                missing.add(warpOwner);
+            }
+        }
+        cleanUp(world, missing);
+    }
+
+    /**
+     * Removes warps whose signs are gone in the next tick, so showing the panel does not wait for it
+     * @param world - world
+     * @param missing - owners of the warps whose signs are gone
+     */
+    private void cleanUp(World world, List<UUID> missing) {
+        if (missing.isEmpty()) {
+            return;
+        }
+        Bukkit.getScheduler().runTask(addon.getPlugin(), () -> {
+            missing.forEach(warpOwner -> addon.getWarpSignsManager().removeWarpFromMap(world, warpOwner));
+            addon.getWarpSignsManager().saveWarpList();
+        });
+    }
+
     /**
      * Add Next and Previous icons to navigate
      * @param panelBuilder - the panel builder
@@ -148,11 +366,13 @@ public class WarpPanelManager {
         if (panelNum > 0 && numOfItems > PANEL_MAX_SIZE) {
             // Previous
             panelBuilder.item(new PanelItemBuilder()
-                    .name(user.getTranslation("warps.previous"))
+                    .name(getTranslation(user, "warps.previous"))
                     .icon(new ItemStack(Material.COBBLESTONE))
                     .clickHandler((panel, clicker, click, slot) -> {
+                        // Closing the panel ends the session, so get it first
+                        PanelSession session = sessions.get(user.getUniqueId());
                         user.closeInventory();
-                        showWarpPanel(world, user, panelNum-1);
+                        turnPage(session, world, user, panelNum-1);
                         return true;
                     }).build());
         }
@@ -160,11 +380,13 @@ public class WarpPanelManager {
         if (numOfItems < totalNum) {
             // Next
             panelBuilder.item(new PanelItemBuilder()
-                    .name(user.getTranslation("warps.next"))
+                    .name(getTranslation(user, "warps.next"))
                     .icon(new ItemStack(Material.STONE))
                     .clickHandler((panel, clicker, click, slot) -> {
+                        // Closing the panel ends the session, so get it first
+                        PanelSession session = sessions.get(user.getUniqueId());
                         user.closeInventory();
-                        showWarpPanel(world, user, panelNum+1);
+                        turnPage(session, world, user, panelNum+1);
                         return true;
                     }).build());
         }
@@ -177,11 +399,48 @@ public class WarpPanelManager {
      * @return true if the item was removed from the cache
      */
     public boolean removeWarp(World world, UUID key) {
+        removeWarpItem(world, key);
         return signCacheManager.removeWarp(world, key);
     }
 
+    /**
+     * Forgets the panel items of a player's warps, e.g., because their name may have changed
+     * @param key - uuid of owner
+     */
+    public void clearPanelItems(UUID key) {
+        warpItems.values().forEach(items -> items.remove(key));
+    }
+
+    /**
+     * Forgets all panel items and translations, e.g., because the settings or locales were reloaded
+     */
+    public void clearPanelItems() {
+        warpItems.clear();
+        translations.clear();
+    }
+
+    /**
+     * Puts the current text of a warp sign in the cache
+     * @param world - world
+     * @param key - uuid of owner
+     * @param item - sign text and type
+     */
+    public void updateSign(World world, UUID key, SignCacheItem item) {
+        signCacheManager.updateSign(world, key, item);
+    }
+
     public void saveCache() {
         signCacheManager.saveCache();
     }
 
+    /**
+     * Writes any unsaved sign cache changes now
+     */
+    public void flushCache() {
+        signCacheManager.flushCache();
+        addon.log("Sign cache: " + signCacheManager.getHits() + " hits, " + signCacheManager.getMisses() + " misses, "
+                + signCacheManager.getEvictions() + " evictions, " + signCacheManager.getDocumentsWritten()
+                + " documents (about " + signCacheManager.getBytesWritten() + " bytes) written");
+    }
+
 }
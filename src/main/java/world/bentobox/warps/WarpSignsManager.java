@@ -2,19 +2,17 @@ package world.bentobox.warps;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -40,6 +38,11 @@ import world.bentobox.bentobox.lists.Flags;
 import world.bentobox.bentobox.util.Util;
 import world.bentobox.warps.event.WarpInitiateEvent;
 import world.bentobox.warps.objects.WarpsData;
+import world.bentobox.warps.objects.WorldWarpsData;
+import world.bentobox.warps.registry.WarpChangeFeed;
+import world.bentobox.warps.registry.WarpDelta;
+import world.bentobox.warps.registry.WarpRegistry;
+import world.bentobox.warps.registry.WarpSnapshot;
 
 /**
  * Handles warping. Players can add one sign
@@ -48,25 +51,56 @@ import world.bentobox.warps.objects.WarpsData;
  *
  */
 public class WarpSignsManager {
-    private static final int MAX_WARPS = 600;
     private static final String WARPS = "warps";
     private final BentoBox plugin;
-    // Map of all warps stored as player, warp sign Location
-    private Map<World, Map<UUID, Location>> worldsWarpList;
-    // Database handler for level data
-    private final Database<WarpsData> handler;
+    // All warps stored as packed sign positions
+    private final WarpRegistry registry;
+    // Database handler for the warps of each world
+    private final Database<WorldWarpsData> handler;
+    // Database handler for the legacy warps object that held every world
+    private final Database<WarpsData> legacyHandler;
+    // Changes since the last full save
+    private final WarpChangeLog changeLog;
+    // Coalesces saves
+    private final SaveScheduler saveScheduler;
+    // When warp owners last played
+    private final LastPlayedCache lastPlayed;
+    // Warp icon of each player per game mode permission prefix
+    private final Map<UUID, Map<String, Optional<Material>>> icons = new ConcurrentHashMap<>();
+    // Where warp signs send players, by sign location. Cleared when nearby blocks change
+    private final Map<Location, Destination> destinations = new HashMap<>();
+    // Loads warp chunks while players wait to teleport
+    private final ChunkPreloader preloader;
+    // Checks that loaded warp signs still exist
+    private WarpValidator validator;
 
     private final Warp addon;
-    private WarpsData warpsData = new WarpsData();
 
     /**
-     * Get the warp map for this world
+     * Where a warp sign sends players
+     * @param spot - block to teleport to, or null if there is no safe spot
+     * @param facing - direction to face, or null to stand on the sign block
+     */
+    private record Destination(@Nullable Location spot, @Nullable BlockFace facing) {}
+
+    /**
+     * Get the warp map for this world. This is a copy and is safe to use from any thread.
      * @param world - world
-     * @return map of warps
+     * @return immutable map of warps
      */
     @NonNull
     public Map<UUID, Location> getWarpMap(@Nullable World world) {
-        return worldsWarpList.computeIfAbsent(Util.getWorld(world), k -> new HashMap<>());
+        return registry.getWarps(world);
+    }
+
+    /**
+     * Get an immutable snapshot of the warps in this world. Safe to use from any thread.
+     * @param world - world
+     * @return warp snapshot
+     */
+    @NonNull
+    public WarpSnapshot getWarpSnapshot(@Nullable World world) {
+        return registry.snapshot(world);
     }
 
     /**
@@ -76,12 +110,65 @@ public class WarpSignsManager {
     public WarpSignsManager(Warp addon, BentoBox plugin) {
         this.addon = addon;
         this.plugin = plugin;
-        this.worldsWarpList = new HashMap<>();
+        this.lastPlayed = new LastPlayedCache(addon);
+        this.registry = new WarpRegistry(lastPlayed::get);
+        lastPlayed.setOwners(registry::hasWarp);
         // Set up the database handler
         // Note that these are saved by the BentoBox database
-        handler = new Database<>(addon, WarpsData.class);
+        handler = new Database<>(addon, WorldWarpsData.class);
+        legacyHandler = new Database<>(addon, WarpsData.class);
+        changeLog = new WarpChangeLog(addon);
+        saveScheduler = new SaveScheduler(addon, this::writeWarpList);
+        preloader = new ChunkPreloader(addon);
         // Load the warps
+        lastPlayed.load();
         loadWarpList();
+        // Find out when owners not seen before last played
+        Set<UUID> owners = new HashSet<>();
+        registry.forEach((uuid, location) -> owners.add(uuid));
+        lastPlayed.seed(owners, registry::setLastPlayed);
+        // Find out the names of owners so their warps can be found by name
+        seedNames(registry.getUnnamed());
+    }
+
+    /**
+     * Looks up the names of warp owners in the background, so loading the warps does
+     * not have to wait for them
+     * @param owners - owners whose names are not known
+     */
+    private void seedNames(Set<UUID> owners) {
+        if (owners.isEmpty()) {
+            return;
+        }
+        Bukkit.getScheduler().runTaskAsynchronously(addon.getPlugin(), () -> {
+            Map<UUID, String> found = new HashMap<>();
+            owners.forEach(uuid -> {
+                String name = Bukkit.getOfflinePlayer(uuid).getName();
+                if (name != null) {
+                    found.put(uuid, name);
+                }
+            });
+            // Players who joined in the meantime are already up to date
+            Bukkit.getScheduler().runTask(addon.getPlugin(), () -> registry.setNamesIfAbsent(found));
+        });
+    }
+
+    /**
+     * @return the registry holding the warps
+     */
+    WarpRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Checks that the loaded warp signs still exist, a few chunks each tick
+     */
+    void startValidation() {
+        if (validator != null) {
+            validator.cancel();
+        }
+        validator = new WarpValidator(addon, this, registry);
+        validator.start();
     }
 
     /**
@@ -97,11 +184,37 @@ public class WarpSignsManager {
             return false;
         }
         // Check for warps placed in a location where there was a warp before
-        if (getWarpMap(loc.getWorld()).containsValue(loc)) {
+        if (registry.getOwner(loc) != null) {
             // remove the warp at this location, then place it
             this.removeWarp(loc);
         }
-        getWarpMap(loc.getWorld()).put(playerUUID, loc);
+        Location previous = registry.get(loc.getWorld(), playerUUID);
+        if (previous != null) {
+            destinations.remove(previous);
+            if (!Objects.equals(previous.getWorld(), loc.getWorld())) {
+                // The warp in the other world of the game mode is replaced, so that world is saved without it
+                changeLog.remove(playerUUID, previous);
+            }
+        }
+        registry.put(playerUUID, loc);
+        // The owner may have joined before the warps were loaded
+        Player player = Bukkit.getPlayer(playerUUID);
+        if (player != null) {
+            registry.setNameIfAbsent(playerUUID, player.getName());
+        }
+        // Only owners' last played times are kept, so start keeping this one
+        setLastPlayed(playerUUID, System.currentTimeMillis());
+        changeLog.put(playerUUID, loc);
+        // Pick up any change to the player's icon permission
+        clearIcon(playerUUID);
+        // Work out the destination now so warping does not have to
+        Location sign = WarpRegistry.toLocation(loc.getWorld(), WarpRegistry.pack(loc));
+        Destination destination = findDestination(sign);
+        if (destination == null) {
+            destinations.remove(sign);
+        } else {
+            destinations.put(sign, destination);
+        }
         saveWarpList();
         Bukkit.getPluginManager().callEvent(new WarpInitiateEvent(addon, loc, playerUUID));
         return true;
@@ -117,7 +230,7 @@ public class WarpSignsManager {
      */
     @Nullable
     public Location getWarp(World world, UUID playerUUID) {
-        return getWarpMap(world).get(playerUUID);
+        return registry.get(world, playerUUID);
     }
 
     /**
@@ -127,8 +240,7 @@ public class WarpSignsManager {
      */
     @NonNull
     public String getWarpOwner(Location location) {
-        return getWarpMap(location.getWorld()).entrySet().stream().filter(en -> en.getValue().equals(location))
-                .findFirst().map(en -> plugin.getPlayers().getName(en.getKey())).orElse("");
+        return getWarpOwnerUUID(location).map(plugin.getPlayers()::getName).orElse("");
     }
 
     /**
@@ -137,84 +249,279 @@ public class WarpSignsManager {
      * @return Optional UUID of warp owner or empty if there is none
      */
     public Optional<UUID> getWarpOwnerUUID(Location location) {
-        return getWarpMap(location.getWorld()).entrySet().stream().filter(en -> en.getValue().equals(location))
-                .findFirst().map(Map.Entry::getKey);
+        return Optional.ofNullable(registry.getOwner(location));
     }
 
     /**
-     * Get sorted list of warps with most recent players listed first
-     * @return UUID list
+     * Check if there are any warp signs in a chunk
+     * @param world - world the chunk is in
+     * @param chunkX - chunk x
+     * @param chunkZ - chunk z
+     * @return true if at least one warp sign is in this chunk
      */
-    public CompletableFuture<List<UUID>> getSortedWarps(@NonNull World world) {
-        CompletableFuture<List<UUID>> r = new CompletableFuture<>();
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> processWarpMap(r, world));
-        return r;
-    }
-
-    List<UUID> processWarpMap(CompletableFuture<List<UUID>> r, @NonNull World world) {
-        // Remove any null locations - this can happen if an admin changes the name of the world and signs point to old locations
-        getWarpMap(world).values().removeIf(Objects::isNull);
-        // Bigger value of time means a more recent login
-        TreeMap<Long, UUID> map = new TreeMap<>();
-        getWarpMap(world).forEach((uuid, value) -> {
-            // If never played, will be zero
-            long lastPlayed = addon.getServer().getOfflinePlayer(uuid).getLastPlayed();
-            // This aims to avoid the chance that players logged off at exactly the same time
-            if (!map.isEmpty() && map.containsKey(lastPlayed)) {
-                lastPlayed = map.firstKey() - 1;
+    public boolean hasWarpsInChunk(@Nullable World world, int chunkX, int chunkZ) {
+        return registry.hasWarpsInChunk(world, chunkX, chunkZ);
+    }
+
+    /**
+     * Get the owners of warp signs in a chunk
+     * @param world - world the chunk is in
+     * @param chunkX - chunk x
+     * @param chunkZ - chunk z
+     * @return set of warp owners whose sign is in this chunk
+     */
+    @NonNull
+    public Set<UUID> getWarpsInChunk(@Nullable World world, int chunkX, int chunkZ) {
+        return registry.getWarpsInChunk(world, chunkX, chunkZ);
+    }
+
+    /**
+     * Removes the warps in a chunk whose sign is no longer there. The chunk should be loaded.
+     * @param world - world the chunk is in
+     * @param chunkX - chunk x
+     * @param chunkZ - chunk z
+     * @return true if any warps were removed
+     */
+    public boolean removeMissingSigns(@NonNull World world, int chunkX, int chunkZ) {
+        boolean changed = false;
+        for (UUID uuid : getWarpsInChunk(world, chunkX, chunkZ)) {
+            Location location = getWarp(world, uuid);
+            if (location != null && !location.getBlock().getType().name().contains("SIGN")) {
+                removeWarpFromMap(world, uuid);
+                // Remove sign from warp panel cache
+                addon.getWarpPanelManager().removeWarp(world, uuid);
+                changed = true;
             }
-            map.put(lastPlayed, uuid);
-        });
-        Collection<UUID> result = map.descendingMap().values();
-        List<UUID> list = new ArrayList<>(result);
-        if (list.size() > MAX_WARPS) {
-            list.subList(0, MAX_WARPS).clear();
         }
-        // Return to main thread
-        Bukkit.getScheduler().runTask(plugin, () -> r.complete(list));
-        return list;
+        return changed;
+    }
+
+    /**
+     * Get sorted list of warps with most recent players listed first,
+     * up to the max warps in the settings
+     * @return UUID list that the caller may change
+     */
+    public CompletableFuture<List<UUID>> getSortedWarps(@NonNull World world) {
+        // The ranking is kept up to date as warps change and players come and go.
+        // It is shared, so callers get a copy.
+        return CompletableFuture.completedFuture(new ArrayList<>(registry.getSorted(world, addon.getSettings().getMaxWarps())));
+    }
+
+    /**
+     * Records when a player last played so their warp moves in the sorted warps
+     * @param uuid - player's UUID
+     * @param time - time in milliseconds since the epoch
+     */
+    public void setLastPlayed(@NonNull UUID uuid, long time) {
+        lastPlayed.set(uuid, time);
+        registry.setLastPlayed(uuid, time);
+    }
+
+    /**
+     * Records the current name of a player so their warp can be found by it
+     * @param uuid - player's UUID
+     * @param name - player's name
+     */
+    public void setName(@NonNull UUID uuid, @NonNull String name) {
+        registry.setName(uuid, name);
+    }
+
+    /**
+     * Finds a warp by its owner's name. An exact match, ignoring case, is tried first
+     * and then the first owner whose name starts with the given name.
+     * @param world - world in the game mode
+     * @param name - owner's name or the start of it
+     * @return owner of the warp or null if none matches
+     */
+    @Nullable
+    public UUID findWarp(@NonNull World world, @NonNull String name) {
+        return registry.getNames(world).find(name);
+    }
+
+    /**
+     * Gets the names of warp owners that start with a prefix, up to the tab complete
+     * limit in the settings. Reads an immutable index, so it can be called from any thread.
+     * @param world - world in the game mode
+     * @param prefix - start of the name, not case sensitive
+     * @return list of names in name order
+     */
+    @NonNull
+    public List<String> getWarpNames(@NonNull World world, @NonNull String prefix) {
+        return registry.getNames(world).getNames(prefix, addon.getSettings().getTabCompleteLimit());
     }
 
     /**
      * Lists all the known warps for this world
      * @param world - world
      *
-     * @return UUID set of warps
+     * @return immutable UUID set of warps
      */
     @NonNull
     public Set<UUID> listWarps(@NonNull World world) {
-        // Remove any null locations
-        getWarpMap(world).values().removeIf(Objects::isNull);
-        return getWarpMap(world).entrySet().stream().filter(e -> Util.sameWorld(world, Objects.requireNonNull(e.getValue().getWorld()))).map(Map.Entry::getKey).collect(Collectors.toSet());
+        return registry.getOwners(world);
     }
 
     /**
-     * Load the warps and check if they still exist
+     * @param world - world
+     * @return version of the warps in this world. It goes up every time they change.
+     */
+    public long getWarpVersion(@NonNull World world) {
+        return registry.getVersion(world);
+    }
+
+    /**
+     * Gets the changes to the warps in this world after a version. Can be called from any thread.
+     * @param world - world
+     * @param since - version the caller has
+     * @return changes, oldest first, or null if they are no longer all kept and the caller
+     * should get the warps again with {@link #getWarpSnapshot(World)}
+     */
+    @Nullable
+    public List<WarpDelta> getChangesSince(@NonNull World world, long since) {
+        return registry.getChangesSince(world, since);
+    }
+
+    /**
+     * @return feed of every change to the warps in all worlds, for integrations
+     */
+    @NonNull
+    public WarpChangeFeed getChangeFeed() {
+        return registry.getFeed();
+    }
+
+    /**
+     * Gets one page of warp owners. Without a filter the owners are in the same order as
+     * {@link #getSortedWarps(World)}, with a filter they are in name order.
+     * @param world - world
+     * @param filter - start of the owner's name, not case sensitive, or null for all owners
+     * @param page - page number, starting at 0
+     * @param size - number of owners on a page
+     * @return immutable list of owners on this page
+     */
+    @NonNull
+    public List<UUID> getWarpPage(@NonNull World world, @Nullable String filter, int page, int size) {
+        if (page < 0 || size <= 0) {
+            return Collections.emptyList();
+        }
+        long end = ((long)page + 1) * size;
+        int limit = (int) Math.min(end, Integer.MAX_VALUE);
+        List<UUID> owners = filter == null || filter.isEmpty() ? registry.getSorted(world, addon.getSettings().getMaxWarps())
+                : registry.getNames(world).getOwners(filter, limit);
+        long start = (long)page * size;
+        if (start >= owners.size()) {
+            return Collections.emptyList();
+        }
+        return List.copyOf(owners.subList((int) start, (int) Math.min(end, owners.size())));
+    }
+
+    /**
+     * Checks if there are any warps in this world without making a set of them
+     * @param world - world
+     * @return true if there is at least one warp
+     */
+    public boolean hasWarps(@NonNull World world) {
+        return !registry.isEmpty(world);
+    }
+
+    /**
+     * @param world - world
+     * @return number of warps in this world
+     */
+    public int getWarpCount(@NonNull World world) {
+        return registry.size(world);
+    }
+
+    /**
+     * Load the warps. Signs are checked later by {@link #startValidation()}
+     * so that loading does not depend on how many warps there are.
      */
     void loadWarpList() {
         addon.log("Loading warps...");
-        worldsWarpList = new HashMap<>();
-        if (handler.objectExists(WARPS)) {
-            warpsData = handler.loadObject(WARPS);
-            // Load into map
-            if (warpsData != null) {
-                warpsData.getWarpSigns().forEach((k,v) -> {
-                    if (k != null && k.getWorld() != null) {
-                        if (k.getWorld().isChunkLoaded(k.getBlockX() >> 4, k.getBlockZ() >> 4)
-                                && !k.getBlock().getType().name().contains("SIGN")) {
-                            return;
-                        }
-
-                        // Add to map
-                        getWarpMap(k.getWorld()).put(v, k);
-                    }
-                });
-            } else {
-                warpsData = new WarpsData();
+        registry.clear();
+        destinations.clear();
+        // Load the warps of each world
+        Map<String, Long> saved = new HashMap<>();
+        Set<World> loaded = new HashSet<>();
+        Bukkit.getWorlds().forEach(world -> {
+            long sequence = loadWorld(world);
+            if (sequence >= 0) {
+                saved.put(world.getName(), sequence);
+                loaded.add(world);
+            }
+        });
+        // Worlds that have their own object already were migrated before
+        boolean migrate = loadLegacyWarpList(loaded);
+        // Replay any changes made since the last full save
+        changeLog.load(saved, change -> {
+            World world = Bukkit.getWorld(change.getWorld());
+            if (world != null) {
+                if (change.isRemoved()) {
+                    registry.remove(world, change.getOwner());
+                } else {
+                    registry.put(change.getOwner(), WarpRegistry.toLocation(world, change.getPosition()));
+                }
             }
+            return world;
+        });
+        if (migrate) {
+            // Write each world on its own and then remove the legacy object
+            addon.log("Migrating warps to one database object per world...");
+            compact().thenAccept(saved -> {
+                if (Boolean.TRUE.equals(saved)) {
+                    legacyHandler.deleteID(WARPS);
+                }
+            });
         }
     }
 
+    /**
+     * Loads the legacy warps object that held the warps of every world. Warps in worlds
+     * that have their own object, or whose owner already has a warp in the game mode,
+     * are newer than the legacy object and are kept.
+     * @param migrated - worlds loaded from their own object
+     * @return true if there was a legacy object to migrate
+     */
+    private boolean loadLegacyWarpList(Set<World> migrated) {
+        if (!legacyHandler.objectExists(WARPS)) {
+            return false;
+        }
+        WarpsData warpsData = legacyHandler.loadObject(WARPS);
+        // Load into map
+        if (warpsData != null) {
+            warpsData.getWarpSigns().forEach((k,v) -> {
+                if (k != null && k.getWorld() != null && v != null && !migrated.contains(k.getWorld())
+                        && registry.get(k.getWorld(), v) == null) {
+                    // Add to map
+                    registry.put(v, k);
+                    changeLog.markChanged(k.getWorld());
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Loads the warps of a world
+     * @param world - world
+     * @return sequence number of the first logged change not in the world's warps object,
+     * or -1 if the world does not have its own warps object
+     */
+    private long loadWorld(@NonNull World world) {
+        if (!handler.objectExists(world.getName())) {
+            return -1;
+        }
+        WorldWarpsData data = handler.loadObject(world.getName());
+        if (data == null) {
+            return -1;
+        }
+        data.getWarps().forEach((uuid, position) -> {
+            if (uuid != null && position != null) {
+                registry.put(uuid, WarpRegistry.toLocation(world, position));
+            }
+        });
+        return data.getSequence();
+    }
+
     /**
      * Changes the sign to red if it exists
      * @param loc location to pop
@@ -237,19 +544,15 @@ public class WarpSignsManager {
      */
     public void removeWarp(Location loc) {
         popSign(loc);
-        Iterator<Entry<UUID, Location>> it = getWarpMap(loc.getWorld()).entrySet().iterator();
-        while (it.hasNext()) {
-            Entry<UUID, Location> en = it.next();
-            if (en.getValue().equals(loc)) {
-                // Inform player
-                Optional.ofNullable(addon.getServer().getPlayer(en.getKey()))
-                        .map(User::getInstance)
-                        .ifPresent(user -> user.sendMessage("warps.sign-removed"));
-                // Remove sign from warp panel cache
-                addon.getWarpPanelManager().removeWarp(loc.getWorld(), en.getKey());
-                it.remove();
-            }
-        }
+        getWarpOwnerUUID(loc).ifPresent(owner -> {
+            // Inform player
+            Optional.ofNullable(addon.getServer().getPlayer(owner))
+                    .map(User::getInstance)
+                    .ifPresent(user -> user.sendMessage("warps.sign-removed"));
+            // Remove sign from warp panel cache
+            addon.getWarpPanelManager().removeWarp(loc.getWorld(), owner);
+            removeWarpFromMap(loc.getWorld(), owner);
+        });
         saveWarpList();
     }
 
@@ -259,10 +562,11 @@ public class WarpSignsManager {
      * @param uuid UUID of owner to remove
      */
     public void removeWarp(World world, UUID uuid) {
-        if (getWarpMap(world).containsKey(uuid)) {
-            popSign(getWarpMap(world).get(uuid));
-            getWarpMap(world).remove(uuid);
-
+        Location loc = registry.remove(world, uuid);
+        if (loc != null) {
+            changeLog.remove(uuid, loc);
+            destinations.remove(loc);
+            popSign(loc);
         }
         // Remove sign from warp panel cache
         addon.getWarpPanelManager().removeWarp(world, uuid);
@@ -275,17 +579,62 @@ public class WarpSignsManager {
      * @param uuid - uuid of owner
      */
     public void removeWarpFromMap(World world, UUID uuid) {
-        getWarpMap(world).remove(uuid);
+        Location loc = registry.remove(world, uuid);
+        if (loc != null) {
+            changeLog.remove(uuid, loc);
+            destinations.remove(loc);
+        }
     }
 
     /**
-     * Saves the warp lists to the database
+     * Saves the warp lists to the database after the save delay. Saves requested
+     * within the delay are combined.
      */
     public void saveWarpList() {
-        handler.saveObjectAsync(warpsData.save(worldsWarpList));
+        saveScheduler.markDirty();
         addon.getWarpPanelManager().saveCache();
     }
 
+    /**
+     * Writes any unsaved warps and sign cache to the database now and waits for the database,
+     * so nothing is lost when the addon is disabled
+     */
+    public void flushSaves() {
+        if (validator != null) {
+            validator.cancel();
+        }
+        preloader.releaseAll();
+        saveScheduler.flushAndWait();
+        lastPlayed.flush();
+        addon.getWarpPanelManager().flushCache();
+    }
+
+    /**
+     * Writes the warp lists to the database. With incremental saves only the changes are
+     * written until there are enough of them to make a full save worthwhile.
+     * @return true when the warps have been written
+     */
+    private CompletableFuture<Boolean> writeWarpList() {
+        if (addon.getSettings().isIncrementalSaves() && changeLog.size() < addon.getSettings().getCompactionThreshold()) {
+            return changeLog.flush();
+        }
+        return compact();
+    }
+
+    /**
+     * Writes the warps of every world that changed since the last full save
+     * @return true when all the worlds have been saved
+     */
+    private CompletableFuture<Boolean> compact() {
+        long sequence = changeLog.getSequence();
+        List<CompletableFuture<Boolean>> saves = changeLog.getChangedWorlds().stream()
+                .map(world -> handler.saveObjectAsync(new WorldWarpsData(world.getName(), registry.getPositions(world), sequence)))
+                .toList();
+        CompletableFuture<Boolean> result = SaveScheduler.allSaved(saves);
+        changeLog.compacted(result);
+        return result;
+    }
+
     /**
      * Gets the warp sign text and material type for player's UUID in world
      *
@@ -301,11 +650,26 @@ public class WarpSignsManager {
             return new SignCacheItem();
         }
         Sign sign = (Sign)signLocation.getBlock().getState();
-        List<String> result = new ArrayList<>(Arrays.asList(sign.getLines()));
+        return getSignInfo(world, uuid, sign.getLines(), sign.getType());
+    }
+
+    /**
+     * Makes the warp sign text and material type for player's UUID in world from the lines
+     * and type of the sign, without reading the sign block
+     *
+     * @param world - world the sign is in
+     * @param uuid - player's uuid
+     * @param lines - lines of the sign, including the [WELCOME] line
+     * @param type - sign material
+     * @return Sign's content and type
+     */
+    @NonNull
+    public SignCacheItem getSignInfo(@NonNull World world, @NonNull UUID uuid, @NonNull String[] lines, @NonNull Material type) {
+        List<String> result = new ArrayList<>(Arrays.asList(lines));
         // Clean up - remove the [WELCOME] line
         result.remove(0);
         // Remove any trailing blank lines
-        result.removeIf(String::isEmpty);
+        result.removeIf(line -> line == null || line.isEmpty());
         // Set the initial color per lore setting
         for (int i = 0; i< result.size(); i++) {
             result.set(i, ChatColor.translateAlternateColorCodes('&', addon.getSettings().getLoreFormat()) + result.get(i));
@@ -314,27 +678,50 @@ public class WarpSignsManager {
 
         String prefix = plugin.getIWM().getAddon(world).map(Addon::getPermissionPrefix).orElse("");
 
-        Material icon;
-
-        if (!prefix.isEmpty())
-        {
-            icon = Material.matchMaterial(
-                    this.getPermissionValue(Objects.requireNonNull(User.getInstance(uuid)),
-                            prefix + "island.warp",
-                            this.addon.getSettings().getIcon()));
-        }
-        else
-        {
-            icon = Material.matchMaterial(this.addon.getSettings().getIcon());
-        }
+        Material icon = getIcon(uuid, prefix);
 
         if (icon == null || icon.name().contains("SIGN")) {
-            return new SignCacheItem(result, Material.valueOf(sign.getType().name().replace("WALL_", "")));
+            return new SignCacheItem(result, Material.valueOf(type.name().replace("WALL_", "")));
         }
         return new SignCacheItem(result, icon);
 
     }
 
+    /**
+     * Gets the warp icon of a player in a game mode. Scanning permissions is slow for
+     * players with many of them, so the result is cached until {@link #clearIcon(UUID)}.
+     * @param uuid - player's UUID
+     * @param prefix - permission prefix of the game mode, or empty if not a game mode
+     * @return icon material or null if the icon is not a valid material
+     */
+    @Nullable
+    private Material getIcon(@NonNull UUID uuid, @NonNull String prefix) {
+        return icons.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>()).computeIfAbsent(prefix, k -> {
+            if (prefix.isEmpty()) {
+                return Optional.ofNullable(Material.matchMaterial(addon.getSettings().getIcon()));
+            }
+            return Optional.ofNullable(Material.matchMaterial(
+                    this.getPermissionValue(Objects.requireNonNull(User.getInstance(uuid)),
+                            prefix + "island.warp",
+                            this.addon.getSettings().getIcon())));
+        }).orElse(null);
+    }
+
+    /**
+     * Forgets the cached warp icons of a player, e.g., because their permissions may have changed
+     * @param uuid - player's UUID
+     */
+    public void clearIcon(@NonNull UUID uuid) {
+        icons.remove(uuid);
+    }
+
+    /**
+     * Forgets all cached warp icons
+     */
+    public void clearIcons() {
+        icons.clear();
+    }
+
     /**
      * Warps a player to a spot in front of a sign.
      * @param user - user who is warping
@@ -408,6 +795,47 @@ public class WarpSignsManager {
 
             }
         }
+        // Use the cached destination if the blocks around the sign have not changed
+        Destination destination = destinations.get(warpSpot);
+        if (destination != null && !warpSpot.getBlock().getType().name().contains("SIGN")) {
+            // The sign went without a block event, e.g., another plugin changed it
+            destinations.remove(warpSpot);
+            destination = null;
+        }
+        if (destination == null) {
+            destination = findDestination(warpSpot);
+            if (destination == null) {
+                // Warp has been removed
+                user.sendMessage("warps.error.does-not-exist");
+                removeWarp(warpSpot);
+                return;
+            }
+            destinations.put(warpSpot, destination);
+        }
+        if (destination.spot() == null) {
+            user.sendMessage("warps.error.not-safe");
+        } else if (destination.facing() != null) {
+            warpPlayer(user, destination.spot(), owner, destination.facing(), pvp);
+        } else {
+            final Location actualWarp = new Location(warpSpot.getWorld(), warpSpot.getBlockX() + 0.5D, warpSpot.getBlockY(),
+                    warpSpot.getBlockZ() + 0.5D);
+            if (pvp) {
+                user.sendMessage("protection.flags.PVP_OVERWORLD.enabled");
+                user.getWorld().playSound(Objects.requireNonNull(user.getLocation()), Sound.ENTITY_ARROW_HIT, 1F, 1F);
+            } else {
+                user.getWorld().playSound(Objects.requireNonNull(user.getLocation()), Sound.ENTITY_BAT_TAKEOFF, 1F, 1F);
+            }
+            Util.teleportAsync(user.getPlayer(), actualWarp, TeleportCause.COMMAND);
+        }
+    }
+
+    /**
+     * Works out where to put players who use a warp sign
+     * @param warpSpot - location of the sign
+     * @return destination, or null if there is no sign here
+     */
+    @Nullable
+    private Destination findDestination(@NonNull Location warpSpot) {
         // Find out which direction the warp is facing
         Block b = warpSpot.getBlock();
         if (b.getType().name().contains("WALL_SIGN")) {
@@ -416,49 +844,68 @@ public class WarpSignsManager {
             Location inFront = b.getRelative(directionFacing).getLocation();
             Location oneDown = b.getRelative(directionFacing).getRelative(BlockFace.DOWN).getLocation();
             if ((plugin.getIslands().isSafeLocation(inFront))) {
-                warpPlayer(user, inFront, owner, directionFacing, pvp);
-                return;
+                return new Destination(inFront, directionFacing);
             } else if (plugin.getIslands().isSafeLocation(oneDown)) {
                 // Try one block down if this is a wall sign
-                warpPlayer(user, oneDown, owner, directionFacing, pvp);
-                return;
+                return new Destination(oneDown, directionFacing);
             }
         } else if (b.getType().name().contains("SIGN")) {
             org.bukkit.block.data.type.Sign s = (org.bukkit.block.data.type.Sign) b.getBlockData();
             BlockFace directionFacing = s.getRotation();
             Location inFront = b.getRelative(directionFacing).getLocation();
             if ((addon.getIslands().isSafeLocation(inFront))) {
-                warpPlayer(user, inFront, owner, directionFacing, pvp);
-                return;
+                return new Destination(inFront, directionFacing);
             }
         } else {
-            // Warp has been removed
-            user.sendMessage("warps.error.does-not-exist");
-            removeWarp(warpSpot);
-            return;
+            return null;
         }
-        if (!(plugin.getIslands().isSafeLocation(warpSpot))) {
-            user.sendMessage("warps.error.not-safe");
-        } else {
-            final Location actualWarp = new Location(warpSpot.getWorld(), warpSpot.getBlockX() + 0.5D, warpSpot.getBlockY(),
-                    warpSpot.getBlockZ() + 0.5D);
-            if (pvp) {
-                user.sendMessage("protection.flags.PVP_OVERWORLD.enabled");
-                user.getWorld().playSound(Objects.requireNonNull(user.getLocation()), Sound.ENTITY_ARROW_HIT, 1F, 1F);
-            } else {
-                user.getWorld().playSound(Objects.requireNonNull(user.getLocation()), Sound.ENTITY_BAT_TAKEOFF, 1F, 1F);
+        // Try the sign block itself
+        return new Destination(plugin.getIslands().isSafeLocation(warpSpot) ? warpSpot : null, null);
+    }
+
+    /**
+     * Forgets the cached destinations of warp signs near a block, because the block changed
+     * @param world - world the block is in
+     * @param x - block x
+     * @param z - block z
+     */
+    public void clearDestinations(@NonNull World world, int x, int z) {
+        // Destinations are at most one block from the sign and their safety depends on the blocks next to them
+        for (int chunkX = (x - 2) >> 4; chunkX <= (x + 2) >> 4; chunkX++) {
+            for (int chunkZ = (z - 2) >> 4; chunkZ <= (z + 2) >> 4; chunkZ++) {
+                if (registry.hasWarpsInChunk(world, chunkX, chunkZ)) {
+                    for (UUID uuid : registry.getWarpsInChunk(world, chunkX, chunkZ)) {
+                        Location sign = registry.get(world, uuid);
+                        if (sign != null && Math.abs(sign.getBlockX() - x) <= 2 && Math.abs(sign.getBlockZ() - z) <= 2) {
+                            destinations.remove(sign);
+                        }
+                    }
+                }
             }
-            Util.teleportAsync(user.getPlayer(), actualWarp, TeleportCause.COMMAND);
         }
     }
 
+    /**
+     * Starts loading the chunks of a warp in the background, e.g., while the player waits
+     * for a delayed teleport. The chunks are held loaded until the returned runnable is run
+     * or the teleport delay is over.
+     * @param world - world in the game mode
+     * @param owner - owner of the warp
+     * @return runnable that releases the chunks
+     */
+    @NonNull
+    public Runnable preloadWarp(@NonNull World world, @NonNull UUID owner) {
+        Location warpSpot = getWarp(world, owner);
+        return warpSpot == null ? () -> {} : preloader.preload(warpSpot);
+    }
+
     /**
      * Check if a player has a warp
      * @param playerUUID - player's UUID
      * @return true if they have warp
      */
     public boolean hasWarp(@NonNull World world, @NonNull UUID playerUUID) {
-        return getWarpMap(world).containsKey(playerUUID);
+        return registry.contains(world, playerUUID);
     }
 
 
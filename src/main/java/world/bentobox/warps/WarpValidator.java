@@ -0,0 +1,101 @@
+package world.bentobox.warps;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import world.bentobox.warps.registry.WarpRegistry;
+
+/**
+ * Checks that the warp signs loaded at startup still exist. It runs on the main thread
+ * one chunk at a time, only for as long as the validation time allows each tick, so
+ * startup does not wait for it. Chunks that are not loaded are checked when they load.
+ *
+ * @author tastybento
+ *
+ */
+class WarpValidator implements Runnable {
+
+    private static final long LOG_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private record ChunkRef(World world, long key) {}
+
+    private final Warp addon;
+    private final WarpSignsManager manager;
+    private final Deque<ChunkRef> chunks = new ArrayDeque<>();
+    private final int total;
+    private int checked;
+    private boolean changed;
+    private long nextLog;
+    private BukkitTask task;
+
+    /**
+     * @param addon - addon
+     * @param manager - warp signs manager whose warps are checked
+     * @param registry - registry to take the chunks to check from
+     */
+    WarpValidator(Warp addon, WarpSignsManager manager, WarpRegistry registry) {
+        this.addon = addon;
+        this.manager = manager;
+        registry.getWorlds().forEach(world -> {
+            for (long key : registry.getChunks(world)) {
+                chunks.add(new ChunkRef(world, key));
+            }
+        });
+        total = chunks.size();
+    }
+
+    /**
+     * Starts checking from the next tick
+     */
+    void start() {
+        if (total > 0) {
+            addon.log("Checking warp signs in " + total + " chunks...");
+            nextLog = System.nanoTime() + LOG_INTERVAL;
+            task = Bukkit.getScheduler().runTaskTimer(addon.getPlugin(), this, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stops checking
+     */
+    void cancel() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        long deadline = now + TimeUnit.MILLISECONDS.toNanos(addon.getSettings().getValidationTime());
+        // Always check at least one chunk each tick
+        do {
+            ChunkRef chunk = chunks.poll();
+            if (chunk == null) {
+                break;
+            }
+            int chunkX = WarpRegistry.chunkX(chunk.key());
+            int chunkZ = WarpRegistry.chunkZ(chunk.key());
+            if (chunk.world().isChunkLoaded(chunkX, chunkZ)) {
+                changed |= manager.removeMissingSigns(chunk.world(), chunkX, chunkZ);
+            }
+            checked++;
+        } while (System.nanoTime() < deadline);
+        if (chunks.isEmpty()) {
+            addon.log("Finished checking warp signs in " + total + " chunks");
+            cancel();
+            if (changed) {
+                manager.saveWarpList();
+            }
+        } else if (now >= nextLog) {
+            addon.log("Checked warp signs in " + checked + " of " + total + " chunks");
+            nextLog = now + LOG_INTERVAL;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package world.bentobox.warps.commands;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.World;
@@ -44,34 +43,24 @@ public class WarpCommand extends DelayedTeleportCommand {
         if (args.size() == 1) {
             World world = getWorld() == null ? user.getWorld() : getWorld();
             // Warp somewhere command
-            Set<UUID> warpList = addon.getWarpSignsManager().listWarps(world);
-            if (warpList.isEmpty()) {
+            if (!addon.getWarpSignsManager().hasWarps(world)) {
                 user.sendMessage("warps.error.no-warps-yet");
                 user.sendMessage("warps.warpTip", "[text]", addon.getSettings().getWelcomeLine());
                 return false;
-            } else {
-                // Attemp to find warp with exact player's name
-                UUID foundWarp = warpList.stream().filter(u -> getPlayers().getName(u).equalsIgnoreCase(args.get(0))).findFirst().orElse(null);
-
-                if (foundWarp == null) {
-
-                    // Atempt to find warp which starts with the given name
-                    UUID foundAlernativeWarp = warpList.stream().filter(u -> getPlayers().getName(u).toLowerCase().startsWith(args.get(0).toLowerCase())).findFirst().orElse(null);
-
-                    if (foundAlernativeWarp == null) {
-                        user.sendMessage("warps.error.does-not-exist");
-                        return false;
-                    } else {
-                        // Alternative warp found!
-                        this.delayCommand(user, () -> addon.getWarpSignsManager().warpPlayer(world, user, foundAlernativeWarp));
-                        return true;
-                    }
-                } else {
-                    // Warp exists!
-                    this.delayCommand(user, () -> addon.getWarpSignsManager().warpPlayer(world, user, foundWarp));
-                    return true;
-                }
             }
+            // Find the warp with the exact player's name, or else one that starts with the given name
+            UUID foundWarp = addon.getWarpSignsManager().findWarp(world, args.get(0));
+            if (foundWarp == null) {
+                user.sendMessage("warps.error.does-not-exist");
+                return false;
+            }
+            // Warp exists! Load the destination while the player waits
+            Runnable release = addon.getWarpSignsManager().preloadWarp(world, foundWarp);
+            this.delayCommand(user, () -> {
+                addon.getWarpSignsManager().warpPlayer(world, user, foundWarp);
+                release.run();
+            });
+            return true;
         }
         showHelp(this, user);
         return false;
@@ -80,7 +69,8 @@ public class WarpCommand extends DelayedTeleportCommand {
     @Override
     public Optional<List<String>> tabComplete(User user, String alias, List<String> args) {
         World world = getWorld() == null ? user.getWorld() : getWorld();
-        return Optional.of(addon.getWarpSignsManager().listWarps(world).stream().map(getPlayers()::getName).toList());
+        String prefix = args.isEmpty() ? "" : args.get(args.size() - 1);
+        return Optional.of(addon.getWarpSignsManager().getWarpNames(world, prefix));
     }
 
 
@@ -74,6 +74,58 @@ public class Settings implements ConfigObject
     @ConfigEntry(path = "warps-command")
     String warpsCommand = "warps";
 
+    @ConfigComment("")
+    @ConfigComment("Incremental saves. If true, only the warps that changed are written to the database and")
+    @ConfigComment("all warps are only written when the number of changes reaches the compaction threshold.")
+    @ConfigComment("If false, all warps are written every time a warp is added or removed.")
+    @ConfigEntry(path = "incremental-saves")
+    private boolean incrementalSaves = true;
+
+    @ConfigComment("")
+    @ConfigComment("Number of logged warp changes that triggers a full save of all warps.")
+    @ConfigEntry(path = "compaction-threshold")
+    private int compactionThreshold = 500;
+
+    @ConfigComment("")
+    @ConfigComment("Save delay in ticks (20 ticks = 1 second). Changes made within this time are written")
+    @ConfigComment("to the database together. 0 saves every change straight away.")
+    @ConfigEntry(path = "save-delay")
+    private int saveDelay = 100;
+
+    @ConfigComment("")
+    @ConfigComment("Save delay in ticks for the times warp owners last played, which order the warps panel.")
+    @ConfigComment("These change every time an owner joins or quits, so they are saved less often.")
+    @ConfigEntry(path = "last-played-save-delay")
+    private int lastPlayedSaveDelay = 6000;
+
+    @ConfigComment("")
+    @ConfigComment("Time in milliseconds per tick spent checking that warp signs still exist after startup.")
+    @ConfigComment("The check runs in the background so the server does not wait for it to start.")
+    @ConfigEntry(path = "validation-time")
+    private int validationTime = 2;
+
+    @ConfigComment("")
+    @ConfigComment("Most warps shown in the warps panel. The most recently active players are shown.")
+    @ConfigEntry(path = "max-warps")
+    private int maxWarps = 600;
+
+    @ConfigComment("")
+    @ConfigComment("Most player names suggested when tab completing the warp command.")
+    @ConfigEntry(path = "tab-complete-limit")
+    private int tabCompleteLimit = 50;
+
+    @ConfigComment("")
+    @ConfigComment("Most warp signs kept in the sign cache used by the warps panel.")
+    @ConfigComment("When it is full the least recently used sign is dropped and read again from the world when needed.")
+    @ConfigEntry(path = "sign-cache-size")
+    private int signCacheSize = 2000;
+
+    @ConfigComment("")
+    @ConfigComment("Read the warp signs of the next page of the warps panel in the tick after a page is shown,")
+    @ConfigComment("so turning the page does not have to wait for them.")
+    @ConfigEntry(path = "prefetch-next-page")
+    private boolean prefetchNextPage = true;
+
 
     // ---------------------------------------------------------------------
     // Section: Constructor
@@ -271,4 +323,148 @@ public class Settings implements ConfigObject
     }
 
 
+    /**
+     * @return the incrementalSaves
+     */
+    public boolean isIncrementalSaves() {
+        return incrementalSaves;
+    }
+
+
+    /**
+     * @param incrementalSaves the incrementalSaves to set
+     */
+    public void setIncrementalSaves(boolean incrementalSaves) {
+        this.incrementalSaves = incrementalSaves;
+    }
+
+
+    /**
+     * @return the compactionThreshold
+     */
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+
+    /**
+     * @param compactionThreshold the compactionThreshold to set
+     */
+    public void setCompactionThreshold(int compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+
+    /**
+     * @return the saveDelay
+     */
+    public int getSaveDelay() {
+        return saveDelay;
+    }
+
+
+    /**
+     * @param saveDelay the saveDelay to set
+     */
+    public void setSaveDelay(int saveDelay) {
+        this.saveDelay = saveDelay;
+    }
+
+
+    /**
+     * @return the validationTime
+     */
+    public int getValidationTime() {
+        return validationTime;
+    }
+
+
+    /**
+     * @param validationTime the validationTime to set
+     */
+    public void setValidationTime(int validationTime) {
+        this.validationTime = validationTime;
+    }
+
+
+    /**
+     * @return the maxWarps
+     */
+    public int getMaxWarps() {
+        return maxWarps;
+    }
+
+
+    /**
+     * @param maxWarps the maxWarps to set
+     */
+    public void setMaxWarps(int maxWarps) {
+        this.maxWarps = maxWarps;
+    }
+
+
+    /**
+     * @return the tabCompleteLimit
+     */
+    public int getTabCompleteLimit() {
+        return tabCompleteLimit;
+    }
+
+
+    /**
+     * @param tabCompleteLimit the tabCompleteLimit to set
+     */
+    public void setTabCompleteLimit(int tabCompleteLimit) {
+        this.tabCompleteLimit = tabCompleteLimit;
+    }
+
+
+    /**
+     * @return the signCacheSize
+     */
+    public int getSignCacheSize() {
+        return signCacheSize;
+    }
+
+
+    /**
+     * @param signCacheSize the signCacheSize to set
+     */
+    public void setSignCacheSize(int signCacheSize) {
+        this.signCacheSize = signCacheSize;
+    }
+
+
+    /**
+     * @return the prefetchNextPage
+     */
+    public boolean isPrefetchNextPage() {
+        return prefetchNextPage;
+    }
+
+
+    /**
+     * @param prefetchNextPage the prefetchNextPage to set
+     */
+    public void setPrefetchNextPage(boolean prefetchNextPage) {
+        this.prefetchNextPage = prefetchNextPage;
+    }
+
+
+    /**
+     * @return the lastPlayedSaveDelay
+     */
+    public int getLastPlayedSaveDelay() {
+        return lastPlayedSaveDelay;
+    }
+
+
+    /**
+     * @param lastPlayedSaveDelay the lastPlayedSaveDelay to set
+     */
+    public void setLastPlayedSaveDelay(int lastPlayedSaveDelay) {
+        this.lastPlayedSaveDelay = lastPlayedSaveDelay;
+    }
+
+
 }
@@ -0,0 +1,44 @@
+package world.bentobox.warps.listeners;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import world.bentobox.warps.Warp;
+
+/**
+ * Keeps track of when players last played so the warps panel shows recent players first,
+ * and of player names so warps can be found by name. Cached warp icons are dropped
+ * because permissions may have changed, and cached panel items because names may have.
+ *
+ * @author tastybento
+ *
+ */
+public class PlayerListener implements Listener {
+
+    private final Warp addon;
+
+    /**
+     * @param addon - addon
+     */
+    public PlayerListener(Warp addon) {
+        this.addon = addon;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent e) {
+        addon.getWarpSignsManager().setLastPlayed(e.getPlayer().getUniqueId(), System.currentTimeMillis());
+        // Names can change between logins
+        addon.getWarpSignsManager().setName(e.getPlayer().getUniqueId(), e.getPlayer().getName());
+        addon.getWarpPanelManager().clearPanelItems(e.getPlayer().getUniqueId());
+        addon.getWarpSignsManager().clearIcon(e.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent e) {
+        addon.getWarpSignsManager().setLastPlayed(e.getPlayer().getUniqueId(), System.currentTimeMillis());
+        addon.getWarpSignsManager().clearIcon(e.getPlayer().getUniqueId());
+    }
+}
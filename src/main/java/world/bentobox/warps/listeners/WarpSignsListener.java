@@ -1,7 +1,6 @@
 package world.bentobox.warps.listeners;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
@@ -9,7 +8,6 @@ import java.util.UUID;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
-import org.bukkit.Tag;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.Sign;
@@ -56,27 +54,18 @@ public class WarpSignsListener implements Listener {
 
     @EventHandler(priority = EventPriority.NORMAL)
     public void onChunkLoad(ChunkLoadEvent event) {
+        World world = event.getWorld();
+        int chunkX = event.getChunk().getX();
+        int chunkZ = event.getChunk().getZ();
+        // Only chunks with warp signs in them need checking
+        if (!addon.getWarpSignsManager().hasWarpsInChunk(world, chunkX, chunkZ)) {
+            return;
+        }
         // Delay to wait the chunk to be fully loaded
         new BukkitRunnable() {
             @Override
             public void run() {
-                boolean changed = false;
-                Iterator<Map.Entry<UUID, Location>> iterator =
-                        addon.getWarpSignsManager().getWarpMap(event.getWorld()).entrySet().iterator();
-                while (iterator.hasNext()) {
-                    Map.Entry<UUID, Location> entry = iterator.next();
-                    UUID uuid = entry.getKey();
-                    Location location = entry.getValue();
-                    if (event.getChunk().getX() == location.getBlockX() >> 4
-                            && event.getChunk().getZ() == location.getBlockZ() >> 4
-                            && !Tag.SIGNS.isTagged(location.getBlock().getType())) {
-                        iterator.remove();
-                        // Remove sign from warp panel cache
-                        addon.getWarpPanelManager().removeWarp(event.getWorld(), uuid);
-                        changed = true;
-                    }
-                }
-                if (changed) {
+                if (addon.getWarpSignsManager().removeMissingSigns(world, chunkX, chunkZ)) {
                     addon.getWarpSignsManager().saveWarpList();
                 }
             }
@@ -128,16 +117,15 @@ public class WarpSignsListener implements Listener {
 
     private boolean isPlayersSign(Player player, Block b, boolean inWorld) {
         // Welcome sign detected - check to see if it is this player's sign
-        Map<UUID, Location> list = addon.getWarpSignsManager().getWarpMap(b.getWorld());
         String reqPerm = inWorld ? addon.getPermPrefix(b.getWorld()) + "mod.removesign" : Warp.WELCOME_WARP_SIGNS + ".mod.removesign";
-        return ((list.containsKey(player.getUniqueId()) && list.get(player.getUniqueId()).equals(b.getLocation()))
+        return (addon.getWarpSignsManager().getWarpOwnerUUID(b.getLocation()).filter(player.getUniqueId()::equals).isPresent()
                 || player.isOp()  || player.hasPermission(reqPerm));
     }
 
     private boolean isWarpSign(Block b) {
         Sign s = (Sign) b.getState();
         return s.getLine(0).equalsIgnoreCase(ChatColor.GREEN + addon.getSettings().getWelcomeLine())
-                && addon.getWarpSignsManager().getWarpMap(b.getWorld()).containsValue(s.getLocation());
+                && addon.getWarpSignsManager().getWarpOwnerUUID(s.getLocation()).isPresent();
     }
 
     /**
@@ -192,6 +180,27 @@ public class WarpSignsListener implements Listener {
 
     }
 
+    /**
+     * Refreshes the cached text of a warp sign when it is edited, using the final lines of the
+     * event so the sign block does not have to be read again
+     *
+     * @param e - event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSignChange(SignChangeEvent e) {
+        Block b = e.getBlock();
+        addon.getWarpSignsManager().getWarpOwnerUUID(b.getLocation()).ifPresent(owner -> {
+            String title = e.getLine(0);
+            if (title != null && title.equalsIgnoreCase(ChatColor.GREEN + addon.getSettings().getWelcomeLine())) {
+                addon.getWarpPanelManager().updateSign(b.getWorld(), owner,
+                        addon.getWarpSignsManager().getSignInfo(b.getWorld(), owner, e.getLines(), b.getType()));
+            } else {
+                // No longer an active warp sign, so let it be read again when needed
+                addon.getWarpPanelManager().removeWarp(b.getWorld(), owner);
+            }
+        });
+    }
+
     private boolean noLevelOrIsland(User user, World world) {
         // Get level if level addon is available
         Long level = addon.getLevel(Util.getWorld(world), user.getUniqueId());
@@ -0,0 +1,64 @@
+package world.bentobox.warps.objects;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.google.gson.annotations.Expose;
+
+import world.bentobox.bentobox.database.objects.DataObject;
+import world.bentobox.bentobox.database.objects.Table;
+
+/**
+ * When warp owners last played, in milliseconds since the epoch
+ * @author tastybento
+ *
+ */
+@Table(name = "WarpsLastPlayed")
+public class LastPlayedData implements DataObject {
+
+    @Expose
+    private String uniqueId = "";
+    @Expose
+    private Map<UUID, Long> lastPlayed = new HashMap<>();
+
+    public LastPlayedData() {
+        // Required by YAML database
+    }
+
+    /**
+     * @param uniqueId - unique id
+     * @param lastPlayed - map of player to last played time
+     */
+    public LastPlayedData(String uniqueId, Map<UUID, Long> lastPlayed) {
+        this.uniqueId = uniqueId;
+        this.lastPlayed = lastPlayed;
+    }
+
+    @Override
+    public String getUniqueId() {
+        return uniqueId;
+    }
+
+    @Override
+    public void setUniqueId(String uniqueId) {
+        this.uniqueId = uniqueId;
+    }
+
+    /**
+     * @return map of player to last played time
+     */
+    public Map<UUID, Long> getLastPlayed() {
+        if (lastPlayed == null)
+            return new HashMap<>();
+        return lastPlayed;
+    }
+
+    /**
+     * @param lastPlayed the lastPlayed to set
+     */
+    public void setLastPlayed(Map<UUID, Long> lastPlayed) {
+        this.lastPlayed = lastPlayed;
+    }
+
+}
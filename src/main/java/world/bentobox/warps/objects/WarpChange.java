@@ -0,0 +1,97 @@
+package world.bentobox.warps.objects;
+
+import java.util.UUID;
+
+import com.google.gson.annotations.Expose;
+
+import world.bentobox.bentobox.database.objects.DataObject;
+import world.bentobox.bentobox.database.objects.Table;
+
+/**
+ * A single warp add or remove in the warp change log
+ * @author tastybento
+ *
+ */
+@Table(name = "WarpsChange")
+public class WarpChange implements DataObject {
+
+    @Expose
+    private String uniqueId = "";
+    @Expose
+    private long sequence;
+    @Expose
+    private UUID owner;
+    @Expose
+    private String world;
+    @Expose
+    private long position;
+    @Expose
+    private boolean removed;
+
+    public WarpChange() {
+        // Required by YAML database
+    }
+
+    /**
+     * @param sequence - order of this change in the log
+     * @param owner - warp owner
+     * @param world - name of the world the sign is in
+     * @param position - packed sign position
+     * @param removed - true if the warp was removed
+     */
+    public WarpChange(long sequence, UUID owner, String world, long position, boolean removed) {
+        // Zero padded so that ids sort in sequence order
+        this.uniqueId = String.format("%019d", sequence);
+        this.sequence = sequence;
+        this.owner = owner;
+        this.world = world;
+        this.position = position;
+        this.removed = removed;
+    }
+
+    @Override
+    public String getUniqueId() {
+        return uniqueId;
+    }
+
+    @Override
+    public void setUniqueId(String uniqueId) {
+        this.uniqueId = uniqueId;
+    }
+
+    /**
+     * @return the sequence
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the owner
+     */
+    public UUID getOwner() {
+        return owner;
+    }
+
+    /**
+     * @return the world name
+     */
+    public String getWorld() {
+        return world;
+    }
+
+    /**
+     * @return the packed sign position
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return true if the warp was removed
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+
+}
@@ -5,13 +5,18 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Location;
-import org.bukkit.World;
 
 import com.google.gson.annotations.Expose;
 
 import world.bentobox.bentobox.database.objects.DataObject;
 import world.bentobox.bentobox.database.objects.Table;
 
+/**
+ * Legacy single object holding the warps of every world. Only read to migrate
+ * to {@link WorldWarpsData}.
+ * @author tastybento
+ *
+ */
 @Table(name = "WarpsData")
 public class WarpsData implements DataObject {
 
@@ -44,15 +49,4 @@ public class WarpsData implements DataObject {
         this.warpSigns = warpSigns;
     }
 
-    /**
-     * Puts all the data from the map into this objects ready for saving
-     * @param worldsWarpList 2D map of warp locations by world vs UUID
-     * @return this class filled with data
-     */
-    public WarpsData save(Map<World, Map<UUID, Location>> worldsWarpList) {
-        getWarpSigns().clear();
-        worldsWarpList.values().forEach(world -> world.forEach((uuid,location) -> warpSigns.put(location, uuid)));
-        return this;
-    }
-
 }
@@ -0,0 +1,91 @@
+package world.bentobox.warps.objects;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.google.gson.annotations.Expose;
+
+import world.bentobox.bentobox.database.objects.DataObject;
+import world.bentobox.bentobox.database.objects.Table;
+
+/**
+ * Warp signs in one world. The unique id is the world name.
+ * Sign positions are stored as packed block coordinates.
+ * @author tastybento
+ *
+ */
+@Table(name = "WarpsWorldData")
+public class WorldWarpsData implements DataObject {
+
+    @Expose
+    private String uniqueId = "";
+    @Expose
+    private Map<UUID, Long> warps = new HashMap<>();
+    @Expose
+    private long sequence;
+
+    public WorldWarpsData() {
+        // Required by YAML database
+    }
+
+    /**
+     * @param world - world name
+     * @param warps - map of owner to packed sign position
+     */
+    public WorldWarpsData(String world, Map<UUID, Long> warps) {
+        this(world, warps, 0);
+    }
+
+    /**
+     * @param world - world name
+     * @param warps - map of owner to packed sign position
+     * @param sequence - sequence number of the first logged change not included in these warps
+     */
+    public WorldWarpsData(String world, Map<UUID, Long> warps, long sequence) {
+        this.uniqueId = world;
+        this.warps = warps;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public String getUniqueId() {
+        return uniqueId;
+    }
+
+    @Override
+    public void setUniqueId(String uniqueId) {
+        this.uniqueId = uniqueId;
+    }
+
+    /**
+     * @return map of owner to packed sign position
+     */
+    public Map<UUID, Long> getWarps() {
+        if (warps == null)
+            return new HashMap<>();
+        return warps;
+    }
+
+    /**
+     * @param warps the warps to set
+     */
+    public void setWarps(Map<UUID, Long> warps) {
+        this.warps = warps;
+    }
+
+    /**
+     * @return sequence number of the first logged change not included in these warps
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @param sequence the sequence to set
+     */
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+}
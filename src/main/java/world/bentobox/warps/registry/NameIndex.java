@@ -0,0 +1,219 @@
+package world.bentobox.warps.registry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Immutable index of warp owner names, sorted by lower case name. Lookups are binary searches,
+ * so they do not depend on how many warps there are. Changes make a new index, so an index
+ * can be read from any thread without locking.
+ *
+ * @author tastybento
+ *
+ */
+public final class NameIndex {
+
+    static final NameIndex EMPTY = new NameIndex(new String[0], new String[0], new UUID[0]);
+
+    // Lower case names in sorted order, with the names as given and the owners at the same index
+    private final String[] keys;
+    private final String[] names;
+    private final UUID[] owners;
+
+    private NameIndex(String[] keys, String[] names, UUID[] owners) {
+        this.keys = keys;
+        this.names = names;
+        this.owners = owners;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * @return number of names
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Finds the first index whose key is not less than the given key
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int indexOf(UUID owner, String name) {
+        String key = key(name);
+        for (int i = lowerBound(key); i < keys.length && keys[i].equals(key); i++) {
+            if (owners[i].equals(owner)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param owner - warp owner
+     * @param name - owner's name
+     * @return index with the owner added under this name
+     */
+    NameIndex with(@NonNull UUID owner, @NonNull String name) {
+        String key = key(name);
+        int at = lowerBound(key);
+        int size = keys.length;
+        String[] newKeys = new String[size + 1];
+        String[] newNames = new String[size + 1];
+        UUID[] newOwners = new UUID[size + 1];
+        System.arraycopy(keys, 0, newKeys, 0, at);
+        System.arraycopy(names, 0, newNames, 0, at);
+        System.arraycopy(owners, 0, newOwners, 0, at);
+        newKeys[at] = key;
+        newNames[at] = name;
+        newOwners[at] = owner;
+        System.arraycopy(keys, at, newKeys, at + 1, size - at);
+        System.arraycopy(names, at, newNames, at + 1, size - at);
+        System.arraycopy(owners, at, newOwners, at + 1, size - at);
+        return new NameIndex(newKeys, newNames, newOwners);
+    }
+
+    /**
+     * Adds many owners at once, sorting the names once instead of copying the index for each owner
+     * @param added - owners and the names to add them under
+     * @return index with the owners added, or this index if there are none
+     */
+    NameIndex withAll(@NonNull Map<UUID, String> added) {
+        if (added.isEmpty()) {
+            return this;
+        }
+        int size = keys.length + added.size();
+        String[] allKeys = Arrays.copyOf(keys, size);
+        String[] allNames = Arrays.copyOf(names, size);
+        UUID[] allOwners = Arrays.copyOf(owners, size);
+        int i = keys.length;
+        for (Map.Entry<UUID, String> entry : added.entrySet()) {
+            allKeys[i] = key(entry.getValue());
+            allNames[i] = entry.getValue();
+            allOwners[i] = entry.getKey();
+            i++;
+        }
+        Integer[] order = new Integer[size];
+        Arrays.setAll(order, n -> n);
+        Arrays.sort(order, Comparator.comparing(n -> allKeys[n]));
+        String[] newKeys = new String[size];
+        String[] newNames = new String[size];
+        UUID[] newOwners = new UUID[size];
+        for (int n = 0; n < size; n++) {
+            newKeys[n] = allKeys[order[n]];
+            newNames[n] = allNames[order[n]];
+            newOwners[n] = allOwners[order[n]];
+        }
+        return new NameIndex(newKeys, newNames, newOwners);
+    }
+
+    /**
+     * @param owner - warp owner
+     * @param name - name the owner was added under
+     * @return index without the owner, or this index if the owner was not in it
+     */
+    NameIndex without(@NonNull UUID owner, @NonNull String name) {
+        int at = indexOf(owner, name);
+        if (at < 0) {
+            return this;
+        }
+        int size = keys.length - 1;
+        String[] newKeys = Arrays.copyOf(keys, size);
+        String[] newNames = Arrays.copyOf(names, size);
+        UUID[] newOwners = Arrays.copyOf(owners, size);
+        System.arraycopy(keys, at + 1, newKeys, at, size - at);
+        System.arraycopy(names, at + 1, newNames, at, size - at);
+        System.arraycopy(owners, at + 1, newOwners, at, size - at);
+        return new NameIndex(newKeys, newNames, newOwners);
+    }
+
+    /**
+     * Finds the owner with this name, ignoring case
+     * @param name - name
+     * @return owner or null if there is no owner with this name
+     */
+    @Nullable
+    public UUID getExact(@NonNull String name) {
+        String key = key(name);
+        int at = lowerBound(key);
+        return at < keys.length && keys[at].equals(key) ? owners[at] : null;
+    }
+
+    /**
+     * Finds the first owner, in name order, whose name starts with the prefix, ignoring case
+     * @param prefix - start of the name
+     * @return owner or null if no name starts with the prefix
+     */
+    @Nullable
+    public UUID getFirst(@NonNull String prefix) {
+        String key = key(prefix);
+        int at = lowerBound(key);
+        return at < keys.length && keys[at].startsWith(key) ? owners[at] : null;
+    }
+
+    /**
+     * Finds an owner by exact name first, then by the start of the name
+     * @param name - name or start of a name
+     * @return owner or null if none matches
+     */
+    @Nullable
+    public UUID find(@NonNull String name) {
+        UUID owner = getExact(name);
+        return owner == null ? getFirst(name) : owner;
+    }
+
+    /**
+     * Gets names that start with a prefix, ignoring case, in name order
+     * @param prefix - start of the name
+     * @param limit - most names to return
+     * @return list of names as the owners spell them
+     */
+    @NonNull
+    public List<String> getNames(@NonNull String prefix, int limit) {
+        String key = key(prefix);
+        List<String> result = new ArrayList<>();
+        for (int i = lowerBound(key); i < keys.length && result.size() < limit && keys[i].startsWith(key); i++) {
+            result.add(names[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets owners whose names start with a prefix, ignoring case, in name order
+     * @param prefix - start of the name
+     * @param limit - most owners to return
+     * @return list of owners
+     */
+    @NonNull
+    public List<UUID> getOwners(@NonNull String prefix, int limit) {
+        String key = key(prefix);
+        List<UUID> result = new ArrayList<>();
+        for (int i = lowerBound(key); i < keys.length && result.size() < limit && keys[i].startsWith(key); i++) {
+            result.add(owners[i]);
+        }
+        return result;
+    }
+}
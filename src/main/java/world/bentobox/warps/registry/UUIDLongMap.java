@@ -0,0 +1,165 @@
+package world.bentobox.warps.registry;
+
+import java.util.UUID;
+
+/**
+ * Open addressing hash map from UUID to a primitive long. Keys are stored as their
+ * most and least significant bits so no UUID objects are retained.
+ *
+ * @author tastybento
+ *
+ */
+class UUIDLongMap {
+
+    /**
+     * Returned when a key is not in the map. Not reachable by a block position inside the world border.
+     */
+    static final long NO_VALUE = Long.MIN_VALUE;
+
+    /**
+     * Receives key and value pairs
+     */
+    @FunctionalInterface
+    interface Visitor {
+        void accept(UUID key, long value);
+    }
+
+    private long[] msb;
+    private long[] lsb;
+    private long[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    UUIDLongMap() {
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        msb = new long[capacity];
+        lsb = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long most, long least) {
+        long h = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32)) & mask;
+    }
+
+    private int find(long most, long least) {
+        int i = slot(most, least);
+        while (used[i]) {
+            if (msb[i] == most && lsb[i] == least) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @param key - key
+     * @return value or {@link #NO_VALUE} if key is not in the map
+     */
+    long get(UUID key) {
+        int i = find(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        return i < 0 ? NO_VALUE : values[i];
+    }
+
+    boolean containsKey(UUID key) {
+        return find(key.getMostSignificantBits(), key.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * @param key - key
+     * @param value - value
+     * @return previous value or {@link #NO_VALUE} if there was none
+     */
+    long put(UUID key, long value) {
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+        int i = slot(most, least);
+        while (used[i]) {
+            if (msb[i] == most && lsb[i] == least) {
+                long old = values[i];
+                values[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        msb[i] = most;
+        lsb[i] = least;
+        values[i] = value;
+        used[i] = true;
+        if (++size * 2 > used.length) {
+            rehash(used.length * 2);
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * @param key - key
+     * @return removed value or {@link #NO_VALUE} if there was none
+     */
+    long remove(UUID key) {
+        int i = find(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (i < 0) {
+            return NO_VALUE;
+        }
+        long old = values[i];
+        size--;
+        // Shift back any following entries so that lookups never need tombstones
+        int gap = i;
+        int j = (i + 1) & mask;
+        while (used[j]) {
+            int home = slot(msb[j], lsb[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                msb[gap] = msb[j];
+                lsb[gap] = lsb[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+            j = (j + 1) & mask;
+        }
+        used[gap] = false;
+        return old;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                visitor.accept(new UUID(msb[i], lsb[i]), values[i]);
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMsb = msb;
+        long[] oldLsb = lsb;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int j = slot(oldMsb[i], oldLsb[i]);
+                while (used[j]) {
+                    j = (j + 1) & mask;
+                }
+                msb[j] = oldMsb[i];
+                lsb[j] = oldLsb[i];
+                values[j] = oldValues[i];
+                used[j] = true;
+            }
+        }
+    }
+}
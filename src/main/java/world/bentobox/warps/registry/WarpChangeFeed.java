@@ -0,0 +1,174 @@
+package world.bentobox.warps.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Feed of every change to the warps in all worlds, for integrations that keep their own copy.
+ * Each change gets the next sequence number. The feed keeps the last changes in a ring buffer,
+ * so readers that fall too far behind are told to resync: read {@link #getLatest()}, take new
+ * snapshots and carry on reading from that sequence. Changes are absolute, so seeing one again
+ * after a resync does no harm. Safe to read from any thread.
+ *
+ * @author tastybento
+ *
+ */
+public final class WarpChangeFeed {
+
+    /**
+     * Kind of change
+     */
+    public enum Type {
+        /**
+         * A new warp
+         */
+        ADDED,
+        /**
+         * An owner's warp moved to another sign
+         */
+        MOVED,
+        /**
+         * A warp was removed
+         */
+        REMOVED
+    }
+
+    /**
+     * One change. Immutable.
+     */
+    public static final class Change {
+        private final long sequence;
+        private final Type type;
+        private final UUID owner;
+        private final World world;
+        private final long position;
+        private final World fromWorld;
+        private final long fromPosition;
+
+        private Change(long sequence, Type type, UUID owner, World world, long position, World fromWorld, long fromPosition) {
+            this.sequence = sequence;
+            this.type = type;
+            this.owner = owner;
+            this.world = world;
+            this.position = position;
+            this.fromWorld = fromWorld;
+            this.fromPosition = fromPosition;
+        }
+
+        /**
+         * @return sequence number of this change
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return kind of change
+         */
+        @NonNull
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * @return warp owner
+         */
+        @NonNull
+        public UUID getOwner() {
+            return owner;
+        }
+
+        /**
+         * @return location of the sign that was added or removed, or that the warp moved to
+         */
+        @NonNull
+        public Location getLocation() {
+            return WarpRegistry.toLocation(world, position);
+        }
+
+        /**
+         * @return location the warp moved from, or null if this is not a move
+         */
+        @Nullable
+        public Location getFrom() {
+            return type == Type.MOVED ? WarpRegistry.toLocation(fromWorld, fromPosition) : null;
+        }
+    }
+
+    /**
+     * Result of a read
+     * @param changes - changes in sequence order
+     * @param cursor - sequence to read from next time
+     * @param resync - true if changes were missed and the reader must take new snapshots
+     */
+    public record Batch(@NonNull List<Change> changes, long cursor, boolean resync) {}
+
+    private final Change[] buffer;
+    // Sequence of the last change
+    private long latest;
+    // Readers before this sequence have to resync
+    private long resyncBefore;
+
+    /**
+     * @param capacity - number of changes kept
+     */
+    WarpChangeFeed(int capacity) {
+        buffer = new Change[capacity];
+    }
+
+    synchronized void add(Type type, UUID owner, World world, long position, World fromWorld, long fromPosition) {
+        latest++;
+        buffer[(int) (latest % buffer.length)] = new Change(latest, type, owner, world, position, fromWorld, fromPosition);
+    }
+
+    /**
+     * Makes all current readers resync, e.g., because the warps were reloaded
+     */
+    synchronized void reset() {
+        // Skip a sequence number so the current readers are all behind
+        latest++;
+        buffer[(int) (latest % buffer.length)] = null;
+        resyncBefore = latest;
+    }
+
+    /**
+     * @return sequence of the last change. A reader starting now reads from here.
+     */
+    public synchronized long getLatest() {
+        return latest;
+    }
+
+    /**
+     * @return number of changes kept
+     */
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Reads the changes after a cursor
+     * @param cursor - sequence of the last change the reader has seen
+     * @param max - most changes to return
+     * @return changes and the cursor to use next time
+     */
+    @NonNull
+    public synchronized Batch read(long cursor, int max) {
+        long oldest = Math.max(1, latest - buffer.length + 1);
+        if (cursor < resyncBefore || cursor < oldest - 1 || cursor > latest) {
+            return new Batch(Collections.emptyList(), latest, true);
+        }
+        int count = (int) Math.min(latest - cursor, Math.max(0, max));
+        List<Change> changes = new ArrayList<>(count);
+        for (long sequence = cursor + 1; sequence <= cursor + count; sequence++) {
+            changes.add(buffer[(int) (sequence % buffer.length)]);
+        }
+        return new Batch(Collections.unmodifiableList(changes), cursor + count, false);
+    }
+}
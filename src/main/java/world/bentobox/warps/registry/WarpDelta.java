@@ -0,0 +1,60 @@
+package world.bentobox.warps.registry;
+
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * One change to the warps of a game mode. Immutable.
+ *
+ * @author tastybento
+ *
+ */
+public final class WarpDelta {
+
+    private final long version;
+    private final UUID owner;
+    private final World world;
+    private final long position;
+    private final boolean removed;
+
+    WarpDelta(long version, UUID owner, World world, long position, boolean removed) {
+        this.version = version;
+        this.owner = owner;
+        this.world = world;
+        this.position = position;
+        this.removed = removed;
+    }
+
+    /**
+     * @return registry version made by this change
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return warp owner
+     */
+    @NonNull
+    public UUID getOwner() {
+        return owner;
+    }
+
+    /**
+     * @return true if the warp was removed, false if it was added
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return location of the sign that was added or removed
+     */
+    @NonNull
+    public Location getLocation() {
+        return WarpRegistry.toLocation(world, position);
+    }
+}
@@ -0,0 +1,753 @@
+package world.bentobox.warps.registry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+import world.bentobox.bentobox.util.Util;
+
+/**
+ * Compact store of all warp signs. Sign positions are kept as packed block coordinates
+ * per world and {@link Location} objects are only made when they are asked for.
+ * <p>
+ * A player has at most one warp in each game mode, so lookups by owner cover the
+ * overworld, nether and end of the game mode together.
+ * <p>
+ * Concurrency: writes and point lookups hold the registry lock. Every write gives its game
+ * mode a new version number. Bulk readers use {@link #snapshot(World)}, which returns an
+ * immutable {@link WarpSnapshot} for the current version that can be iterated on any
+ * thread without locking. A snapshot is built at most once per version.
+ * <p>
+ * Each game mode also keeps its owners ordered by when they last played, most recent first.
+ * The order is updated as warps are added or removed and as players join or leave, so the
+ * sorted list only has to be copied when something changed.
+ * <p>
+ * Owner names are indexed per game mode in a {@link NameIndex} so warps can be found by
+ * name without looking up the name of every owner.
+ * <p>
+ * The last {@value #HISTORY_SIZE} changes of each game mode are kept as {@link WarpDelta}s
+ * so readers can catch up from a version without taking a new snapshot. Changes in all
+ * worlds also go to a {@link WarpChangeFeed} for integrations.
+ *
+ * @author tastybento
+ *
+ */
+public class WarpRegistry {
+
+    /**
+     * Warp stores of one game mode and its published snapshot
+     */
+    private static class GameWorld {
+        // Guarded by the registry lock
+        private final List<WorldWarps> stores = new ArrayList<>();
+        private final TreeSet<Ranked> ranking = new TreeSet<>(RANKING_ORDER);
+        private volatile long version;
+        // Number of warps, kept with the version so it can be read without a snapshot
+        private volatile int size;
+        private volatile WarpSnapshot snapshot;
+        // Top owners in ranking order, null after the ranking changes
+        private volatile Sorted sorted;
+        // Replaced on every change
+        private volatile NameIndex names = NameIndex.EMPTY;
+        // Recent changes, oldest first. Guarded by the registry lock
+        private final ArrayDeque<WarpDelta> history = new ArrayDeque<>();
+        // Changes up to and including this version are no longer in the history
+        private long historyStart;
+    }
+
+    /**
+     * Top owners of a game mode in ranking order
+     */
+    private record Sorted(int limit, List<UUID> owners) {}
+
+    /**
+     * Warp owner and the last played time used to rank it
+     */
+    private record Ranked(long lastPlayed, UUID owner) {}
+
+    // Most recent first. Ties are broken by UUID so every owner has a place
+    private static final Comparator<Ranked> RANKING_ORDER = Comparator.comparingLong(Ranked::lastPlayed).reversed()
+            .thenComparing(Ranked::owner);
+
+    /**
+     * Number of changes kept per game mode
+     */
+    public static final int HISTORY_SIZE = 1024;
+
+    /**
+     * Number of changes kept in the change feed
+     */
+    public static final int FEED_SIZE = 4096;
+
+    // Warps by the world the sign is in. Guarded by the registry lock
+    private final Map<World, WorldWarps> stores = new HashMap<>();
+    // Stores grouped by game mode overworld
+    private final Map<World, GameWorld> gameWorlds = new ConcurrentHashMap<>();
+    // Last version given out. Guarded by the registry lock
+    private long version;
+    // Changes in all worlds for integrations
+    private final WarpChangeFeed feed = new WarpChangeFeed(FEED_SIZE);
+    // Last played time each owner is ranked by. Guarded by the registry lock
+    private final Map<UUID, Long> lastPlayed = new HashMap<>();
+    // Looks up the last played time of owners that have not been seen yet
+    private final ToLongFunction<UUID> lastPlayedLookup;
+    // Name each owner is indexed under. Guarded by the registry lock
+    private final Map<UUID, String> names = new HashMap<>();
+
+    /**
+     * Makes a registry where owners that have not been seen yet rank as never played and have no name
+     */
+    public WarpRegistry() {
+        this(owner -> 0L);
+    }
+
+    /**
+     * Makes a registry where owners that have not been seen yet have no name until
+     * {@link #setName(UUID, String)} is called
+     * @param lastPlayedLookup - gives the last played time of an owner that has not been seen yet
+     */
+    public WarpRegistry(@NonNull ToLongFunction<UUID> lastPlayedLookup) {
+        this.lastPlayedLookup = lastPlayedLookup;
+    }
+
+    /**
+     * Packs block coordinates into a single long
+     * @param x - block x
+     * @param y - block y
+     * @param z - block z
+     * @return packed position
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long)(x & 0x3FFFFFF) << 38) | ((long)(z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * Packs the block coordinates of a location into a single long
+     * @param loc - location
+     * @return packed position
+     */
+    public static long pack(@NonNull Location loc) {
+        return pack(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+    }
+
+    public static int unpackX(long position) {
+        return (int)(position >> 38);
+    }
+
+    public static int unpackY(long position) {
+        return (int)(position << 52 >> 52);
+    }
+
+    public static int unpackZ(long position) {
+        return (int)(position << 26 >> 38);
+    }
+
+    /**
+     * Packs chunk coordinates into a single long
+     * @param chunkX - chunk x
+     * @param chunkZ - chunk z
+     * @return packed chunk coordinates
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long)chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int chunkX(long chunkKey) {
+        return (int)(chunkKey >> 32);
+    }
+
+    public static int chunkZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    static long chunkKey(long position) {
+        return chunkKey(unpackX(position) >> 4, unpackZ(position) >> 4);
+    }
+
+    /**
+     * Makes a block location from a packed position
+     * @param world - world
+     * @param position - packed position
+     * @return location
+     */
+    @NonNull
+    public static Location toLocation(@Nullable World world, long position) {
+        return new Location(world, unpackX(position), unpackY(position), unpackZ(position));
+    }
+
+    private WorldWarps store(@NonNull World world) {
+        return stores.computeIfAbsent(world, w -> {
+            WorldWarps store = new WorldWarps(w);
+            gameWorlds.computeIfAbsent(Objects.requireNonNull(Util.getWorld(w)), k -> {
+                GameWorld gameWorld = new GameWorld();
+                // Nothing before now can be replayed
+                gameWorld.historyStart = version;
+                return gameWorld;
+            }).stores.add(store);
+            return store;
+        });
+    }
+
+    @Nullable
+    private GameWorld gameWorld(@Nullable World world) {
+        World key = world == null ? null : Util.getWorld(world);
+        return key == null ? null : gameWorlds.get(key);
+    }
+
+    private List<WorldWarps> gameWorldStores(@Nullable World world) {
+        GameWorld gameWorld = gameWorld(world);
+        return gameWorld == null ? Collections.emptyList() : gameWorld.stores;
+    }
+
+    private void changed(@NonNull GameWorld gameWorld) {
+        int size = 0;
+        for (WorldWarps store : gameWorld.stores) {
+            size += store.size();
+        }
+        gameWorld.size = size;
+        gameWorld.version = ++version;
+    }
+
+    private void record(@NonNull GameWorld gameWorld, @NonNull UUID owner, @NonNull World world, long position, boolean removed) {
+        if (gameWorld.history.size() == HISTORY_SIZE) {
+            gameWorld.historyStart = gameWorld.history.removeFirst().getVersion();
+        }
+        gameWorld.history.addLast(new WarpDelta(gameWorld.version, owner, world, position, removed));
+    }
+
+    /**
+     * Puts a warp, replacing the owner's previous warp in this game mode and any warp at the same spot.
+     * Warps in worlds that are not loaded are ignored.
+     * @param owner - warp owner
+     * @param loc - location of the warp sign
+     */
+    public synchronized void put(@NonNull UUID owner, @NonNull Location loc) {
+        World world = loc.getWorld();
+        if (world == null || Util.getWorld(world) == null) {
+            return;
+        }
+        // Find the warp this replaces, if any, so the feed can show a move
+        WorldWarps fromStore = null;
+        long fromPosition = UUIDLongMap.NO_VALUE;
+        for (WorldWarps store : gameWorldStores(world)) {
+            fromPosition = store.getPosition(owner);
+            if (fromPosition != UUIDLongMap.NO_VALUE) {
+                fromStore = store;
+                break;
+            }
+        }
+        remove(world, owner, false);
+        WorldWarps store = store(world);
+        GameWorld gameWorld = Objects.requireNonNull(gameWorld(world));
+        long position = pack(loc);
+        UUID previous = store.getOwner(position);
+        if (previous != null) {
+            // The other owner's warp is replaced
+            unrank(gameWorld, previous);
+        }
+        store.put(owner, position);
+        if (previous != null) {
+            forget(previous);
+        }
+        long time = lastPlayed.computeIfAbsent(owner, lastPlayedLookup::applyAsLong);
+        gameWorld.ranking.add(new Ranked(time, owner));
+        gameWorld.sorted = null;
+        String name = names.get(owner);
+        if (name != null && !name.isEmpty()) {
+            gameWorld.names = gameWorld.names.with(owner, name);
+        }
+        changed(gameWorld);
+        if (previous != null) {
+            record(gameWorld, previous, world, position, true);
+            feed.add(WarpChangeFeed.Type.REMOVED, previous, world, position, null, UUIDLongMap.NO_VALUE);
+        }
+        record(gameWorld, owner, world, position, false);
+        if (fromStore == null) {
+            feed.add(WarpChangeFeed.Type.ADDED, owner, world, position, null, UUIDLongMap.NO_VALUE);
+        } else {
+            feed.add(WarpChangeFeed.Type.MOVED, owner, world, position, fromStore.getWorld(), fromPosition);
+        }
+    }
+
+    private void unrank(GameWorld gameWorld, UUID owner) {
+        Long time = lastPlayed.get(owner);
+        if (time != null && gameWorld.ranking.remove(new Ranked(time, owner))) {
+            gameWorld.sorted = null;
+        }
+        String name = names.get(owner);
+        if (name != null && !name.isEmpty()) {
+            gameWorld.names = gameWorld.names.without(owner, name);
+        }
+    }
+
+    /**
+     * Removes the warp of an owner
+     * @param world - world in the game mode
+     * @param owner - warp owner
+     * @return location of the removed warp or null if there was none
+     */
+    @Nullable
+    public synchronized Location remove(@Nullable World world, @NonNull UUID owner) {
+        Location result = remove(world, owner, true);
+        if (result != null) {
+            forget(owner);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the last played time and name of a player once their last warp is gone
+     * @param owner - player
+     */
+    private void forget(@NonNull UUID owner) {
+        if (!hasWarp(owner)) {
+            lastPlayed.remove(owner);
+            names.remove(owner);
+        }
+    }
+
+    private Location remove(@Nullable World world, @NonNull UUID owner, boolean publish) {
+        for (WorldWarps store : gameWorldStores(world)) {
+            long position = store.remove(owner);
+            if (position != UUIDLongMap.NO_VALUE) {
+                GameWorld gameWorld = Objects.requireNonNull(gameWorld(world));
+                unrank(gameWorld, owner);
+                changed(gameWorld);
+                record(gameWorld, owner, store.getWorld(), position, true);
+                if (publish) {
+                    feed.add(WarpChangeFeed.Type.REMOVED, owner, store.getWorld(), position, null, UUIDLongMap.NO_VALUE);
+                }
+                return toLocation(store.getWorld(), position);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the warp of an owner
+     * @param world - world in the game mode
+     * @param owner - warp owner
+     * @return location of the warp sign or null if there is none
+     */
+    @Nullable
+    public synchronized Location get(@Nullable World world, @NonNull UUID owner) {
+        for (WorldWarps store : gameWorldStores(world)) {
+            long position = store.getPosition(owner);
+            if (position != UUIDLongMap.NO_VALUE) {
+                return toLocation(store.getWorld(), position);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param world - world in the game mode
+     * @param owner - warp owner
+     * @return true if the owner has a warp in this game mode
+     */
+    public synchronized boolean contains(@Nullable World world, @NonNull UUID owner) {
+        return gameWorldStores(world).stream().anyMatch(store -> store.contains(owner));
+    }
+
+    /**
+     * Gets the owner of the warp sign at a location
+     * @param loc - location
+     * @return owner or null if there is no warp here
+     */
+    @Nullable
+    public synchronized UUID getOwner(@NonNull Location loc) {
+        WorldWarps store = loc.getWorld() == null ? null : stores.get(loc.getWorld());
+        return store == null ? null : store.getOwner(pack(loc));
+    }
+
+    /**
+     * @param world - world the chunk is in
+     * @param chunkX - chunk x
+     * @param chunkZ - chunk z
+     * @return true if there is a warp sign in this chunk
+     */
+    public synchronized boolean hasWarpsInChunk(@Nullable World world, int chunkX, int chunkZ) {
+        WorldWarps store = world == null ? null : stores.get(world);
+        return store != null && store.hasChunk(chunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * @param world - world the chunk is in
+     * @param chunkX - chunk x
+     * @param chunkZ - chunk z
+     * @return owners of warp signs in this chunk
+     */
+    @NonNull
+    public synchronized Set<UUID> getWarpsInChunk(@Nullable World world, int chunkX, int chunkZ) {
+        WorldWarps store = world == null ? null : stores.get(world);
+        return store == null ? Collections.emptySet() : Set.of(store.getChunk(chunkKey(chunkX, chunkZ)));
+    }
+
+    /**
+     * @return the worlds that have or had warp signs in them
+     */
+    @NonNull
+    public synchronized Set<World> getWorlds() {
+        return new HashSet<>(stores.keySet());
+    }
+
+    /**
+     * @param world - world the signs are in
+     * @return packed coordinates of every chunk in the world with a warp sign in it
+     */
+    public synchronized long[] getChunks(@Nullable World world) {
+        WorldWarps store = world == null ? null : stores.get(world);
+        return store == null ? new long[0] : store.getChunkKeys();
+    }
+
+    /**
+     * Gets the warps whose sign is in a world
+     * @param world - world the signs are in
+     * @return new map of owner to packed sign position
+     */
+    @NonNull
+    public synchronized Map<UUID, Long> getPositions(@Nullable World world) {
+        Map<UUID, Long> result = new HashMap<>();
+        WorldWarps store = world == null ? null : stores.get(world);
+        if (store != null) {
+            store.forEach(result::put);
+        }
+        return result;
+    }
+
+    /**
+     * Gets an immutable snapshot of the warps in a game mode. Can be called from any thread.
+     * @param world - world in the game mode
+     * @return snapshot for the current version
+     */
+    @NonNull
+    public WarpSnapshot snapshot(@Nullable World world) {
+        GameWorld gameWorld = gameWorld(world);
+        return gameWorld == null ? WarpSnapshot.EMPTY : snapshot(gameWorld);
+    }
+
+    private WarpSnapshot snapshot(GameWorld gameWorld) {
+        WarpSnapshot result = gameWorld.snapshot;
+        if (result != null && result.getVersion() == gameWorld.version) {
+            return result;
+        }
+        synchronized (this) {
+            result = gameWorld.snapshot;
+            if (result == null || result.getVersion() != gameWorld.version) {
+                result = build(gameWorld);
+                gameWorld.snapshot = result;
+            }
+            return result;
+        }
+    }
+
+    private WarpSnapshot build(GameWorld gameWorld) {
+        int size = gameWorld.stores.stream().mapToInt(WorldWarps::size).sum();
+        World[] worlds = new World[gameWorld.stores.size()];
+        UUID[] owners = new UUID[size];
+        long[] positions = new long[size];
+        byte[] worldIndex = new byte[size];
+        int[] i = {0};
+        for (int w = 0; w < worlds.length; w++) {
+            WorldWarps store = gameWorld.stores.get(w);
+            worlds[w] = store.getWorld();
+            byte index = (byte) w;
+            store.forEach((owner, position) -> {
+                owners[i[0]] = owner;
+                positions[i[0]] = position;
+                worldIndex[i[0]] = index;
+                i[0]++;
+            });
+        }
+        return new WarpSnapshot(gameWorld.version, worlds, owners, positions, worldIndex);
+    }
+
+    /**
+     * @param world - world in the game mode
+     * @return immutable set of the owners of warps in this game mode
+     */
+    @NonNull
+    public Set<UUID> getOwners(@Nullable World world) {
+        return snapshot(world).getOwners();
+    }
+
+    /**
+     * @param world - world in the game mode
+     * @return immutable map of owners to warp sign locations in this game mode, shared until the next change
+     */
+    @NonNull
+    public Map<UUID, Location> getWarps(@Nullable World world) {
+        return snapshot(world).toMap();
+    }
+
+    /**
+     * @param world - world in the game mode
+     * @return number of warps in this game mode
+     */
+    public int size(@Nullable World world) {
+        GameWorld gameWorld = gameWorld(world);
+        return gameWorld == null ? 0 : gameWorld.size;
+    }
+
+    /**
+     * @param world - world in the game mode
+     * @return true if there are no warps in this game mode
+     */
+    public boolean isEmpty(@Nullable World world) {
+        return size(world) == 0;
+    }
+
+    /**
+     * Records when a warp owner last played and moves their warps in the ranking.
+     * Players without warps are ignored.
+     * @param owner - player
+     * @param time - last played time in milliseconds since the epoch
+     */
+    public synchronized void setLastPlayed(@NonNull UUID owner, long time) {
+        if (!hasWarp(owner)) {
+            return;
+        }
+        Long previous = lastPlayed.put(owner, time);
+        if (previous == null || previous == time) {
+            // Not ranked anywhere yet or nothing to move
+            return;
+        }
+        Ranked old = new Ranked(previous, owner);
+        for (GameWorld gameWorld : gameWorlds.values()) {
+            if (gameWorld.ranking.remove(old)) {
+                gameWorld.ranking.add(new Ranked(time, owner));
+                gameWorld.sorted = null;
+            }
+        }
+    }
+
+    /**
+     * @return feed of changes to the warps in all worlds
+     */
+    @NonNull
+    public WarpChangeFeed getFeed() {
+        return feed;
+    }
+
+    /**
+     * Records the name of a warp owner and reindexes their warps under it.
+     * Players without warps are ignored.
+     * @param owner - player
+     * @param name - player's name
+     */
+    public synchronized void setName(@NonNull UUID owner, @NonNull String name) {
+        if (!hasWarp(owner)) {
+            return;
+        }
+        String previous = names.put(owner, name);
+        Long time = lastPlayed.get(owner);
+        if (name.equals(previous) || time == null) {
+            // Nothing to change or no warps to index
+            return;
+        }
+        Ranked ranked = new Ranked(time, owner);
+        for (GameWorld gameWorld : gameWorlds.values()) {
+            if (gameWorld.ranking.contains(ranked)) {
+                NameIndex index = previous == null || previous.isEmpty() ? gameWorld.names : gameWorld.names.without(owner, previous);
+                gameWorld.names = name.isEmpty() ? index : index.with(owner, name);
+            }
+        }
+    }
+
+    /**
+     * @param owner - player
+     * @return true if the player has a warp in any world
+     */
+    public synchronized boolean hasWarp(@NonNull UUID owner) {
+        for (WorldWarps store : stores.values()) {
+            if (store.getPosition(owner) != UUIDLongMap.NO_VALUE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records the name of a player unless a name is already known, e.g., because the
+     * player joined while the name was being looked up
+     * @param owner - player
+     * @param name - player's name
+     */
+    public synchronized void setNameIfAbsent(@NonNull UUID owner, @NonNull String name) {
+        if (!names.containsKey(owner)) {
+            setName(owner, name);
+        }
+    }
+
+    /**
+     * Records the names of many warp owners at once, e.g., after looking them up at startup.
+     * Each game mode gets one new name index however many names there are. Names that are
+     * already known and players without warps are skipped.
+     * @param found - owners and their names
+     */
+    public synchronized void setNamesIfAbsent(@NonNull Map<UUID, String> found) {
+        Map<UUID, String> added = new HashMap<>();
+        found.forEach((owner, name) -> {
+            if (!name.isEmpty() && !names.containsKey(owner) && hasWarp(owner)) {
+                names.put(owner, name);
+                added.put(owner, name);
+            }
+        });
+        if (added.isEmpty()) {
+            return;
+        }
+        for (GameWorld gameWorld : gameWorlds.values()) {
+            Map<UUID, String> indexed = new HashMap<>();
+            added.forEach((owner, name) -> {
+                Long time = lastPlayed.get(owner);
+                if (time != null && gameWorld.ranking.contains(new Ranked(time, owner))) {
+                    indexed.put(owner, name);
+                }
+            });
+            gameWorld.names = gameWorld.names.withAll(indexed);
+        }
+    }
+
+    /**
+     * @return owners of warps in any world whose names are not known
+     */
+    @NonNull
+    public synchronized Set<UUID> getUnnamed() {
+        Set<UUID> unnamed = new HashSet<>();
+        for (GameWorld gameWorld : gameWorlds.values()) {
+            for (Ranked ranked : gameWorld.ranking) {
+                if (!names.containsKey(ranked.owner())) {
+                    unnamed.add(ranked.owner());
+                }
+            }
+        }
+        return unnamed;
+    }
+
+    /**
+     * @param world - world in the game mode
+     * @return current version of the warps in this game mode, or 0 if there have never been any
+     */
+    public long getVersion(@Nullable World world) {
+        GameWorld gameWorld = gameWorld(world);
+        return gameWorld == null ? 0 : gameWorld.version;
+    }
+
+    /**
+     * Gets the changes made to a game mode after a version
+     * @param world - world in the game mode
+     * @param since - version the reader has
+     * @return changes in order, oldest first, or null if some of them are no longer kept
+     * and the reader should take a new snapshot
+     */
+    @Nullable
+    public synchronized List<WarpDelta> getChangesSince(@Nullable World world, long since) {
+        GameWorld gameWorld = gameWorld(world);
+        if (gameWorld == null) {
+            // Never had warps, or they were cleared
+            return since == 0 ? Collections.emptyList() : null;
+        }
+        if (since < gameWorld.historyStart) {
+            return null;
+        }
+        List<WarpDelta> result = new ArrayList<>();
+        Iterator<WarpDelta> it = gameWorld.history.descendingIterator();
+        while (it.hasNext()) {
+            WarpDelta delta = it.next();
+            if (delta.getVersion() <= since) {
+                break;
+            }
+            result.add(delta);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Gets the name index of a game mode. Can be called from any thread.
+     * @param world - world in the game mode
+     * @return immutable index of warp owner names
+     */
+    @NonNull
+    public NameIndex getNames(@Nullable World world) {
+        GameWorld gameWorld = gameWorld(world);
+        return gameWorld == null ? NameIndex.EMPTY : gameWorld.names;
+    }
+
+    /**
+     * Gets the owners of warps in a game mode, most recently played first. Can be called from any thread.
+     * @param world - world in the game mode
+     * @return immutable list of owners
+     */
+    @NonNull
+    public List<UUID> getSorted(@Nullable World world) {
+        return getSorted(world, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the most recently played owners of warps in a game mode, most recent first.
+     * Only the first entries of the ranking are read, so the cost depends on the limit
+     * and not on the number of warps. Can be called from any thread.
+     * @param world - world in the game mode
+     * @param limit - most owners to return
+     * @return immutable list of at most limit owners
+     */
+    @NonNull
+    public List<UUID> getSorted(@Nullable World world, int limit) {
+        GameWorld gameWorld = gameWorld(world);
+        if (gameWorld == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Sorted result = gameWorld.sorted;
+        if (result != null && result.limit() == limit) {
+            return result.owners();
+        }
+        synchronized (this) {
+            result = gameWorld.sorted;
+            if (result == null || result.limit() != limit) {
+                result = new Sorted(limit, gameWorld.ranking.stream().limit(limit).map(Ranked::owner).toList());
+                gameWorld.sorted = result;
+            }
+            return result.owners();
+        }
+    }
+
+    /**
+     * Visits every warp in every world using the current snapshots
+     * @param consumer - receives the owner and sign location
+     */
+    public void forEach(@NonNull BiConsumer<UUID, Location> consumer) {
+        gameWorlds.values().forEach(gameWorld -> snapshot(gameWorld).forEach(consumer));
+    }
+
+    /**
+     * Removes all warps
+     */
+    public synchronized void clear() {
+        stores.clear();
+        gameWorlds.clear();
+        lastPlayed.clear();
+        names.clear();
+        // Readers of the old warps have to take a new snapshot
+        version++;
+        feed.reset();
+    }
+}
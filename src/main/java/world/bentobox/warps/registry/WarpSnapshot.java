@@ -0,0 +1,133 @@
+package world.bentobox.warps.registry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Immutable copy of the warps in a game mode at a given registry version.
+ * Safe to read from any thread without locking.
+ *
+ * @author tastybento
+ *
+ */
+public final class WarpSnapshot {
+
+    static final WarpSnapshot EMPTY = new WarpSnapshot(0, new World[0], new UUID[0], new long[0], new byte[0]);
+
+    private final long version;
+    private final World[] worlds;
+    private final UUID[] owners;
+    private final long[] positions;
+    private final byte[] worldIndex;
+    private volatile Set<UUID> ownerSet;
+    private volatile Map<UUID, Location> locationMap;
+
+    WarpSnapshot(long version, World[] worlds, UUID[] owners, long[] positions, byte[] worldIndex) {
+        this.version = version;
+        this.worlds = worlds;
+        this.owners = owners;
+        this.positions = positions;
+        this.worldIndex = worldIndex;
+    }
+
+    /**
+     * @return registry version this snapshot was taken at
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return number of warps
+     */
+    public int size() {
+        return owners.length;
+    }
+
+    public boolean isEmpty() {
+        return owners.length == 0;
+    }
+
+    /**
+     * @param index - index from 0 to size - 1
+     * @return warp owner
+     */
+    @NonNull
+    public UUID getOwner(int index) {
+        return owners[index];
+    }
+
+    /**
+     * @param index - index from 0 to size - 1
+     * @return packed sign position
+     */
+    public long getPosition(int index) {
+        return positions[index];
+    }
+
+    /**
+     * @param index - index from 0 to size - 1
+     * @return world the sign is in
+     */
+    @Nullable
+    public World getWorld(int index) {
+        return worlds[worldIndex[index]];
+    }
+
+    /**
+     * @param index - index from 0 to size - 1
+     * @return location of the sign
+     */
+    @NonNull
+    public Location getLocation(int index) {
+        return WarpRegistry.toLocation(getWorld(index), positions[index]);
+    }
+
+    /**
+     * @return immutable set of warp owners
+     */
+    @NonNull
+    public Set<UUID> getOwners() {
+        Set<UUID> result = ownerSet;
+        if (result == null) {
+            result = Set.of(owners);
+            ownerSet = result;
+        }
+        return result;
+    }
+
+    /**
+     * Built once per snapshot and shared by all callers, so do not change the locations in it.
+     * @return immutable map of warp owners to sign locations
+     */
+    @NonNull
+    public Map<UUID, Location> toMap() {
+        Map<UUID, Location> result = locationMap;
+        if (result == null) {
+            Map<UUID, Location> map = new HashMap<>(owners.length * 2);
+            forEach(map::put);
+            result = Collections.unmodifiableMap(map);
+            locationMap = result;
+        }
+        return result;
+    }
+
+    /**
+     * Visits every warp
+     * @param consumer - receives the owner and sign location
+     */
+    public void forEach(@NonNull BiConsumer<UUID, Location> consumer) {
+        for (int i = 0; i < owners.length; i++) {
+            consumer.accept(owners[i], getLocation(i));
+        }
+    }
+}
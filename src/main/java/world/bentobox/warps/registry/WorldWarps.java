@@ -0,0 +1,129 @@
+package world.bentobox.warps.registry;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.bukkit.World;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Warp signs in a single world stored as packed block positions
+ *
+ * @author tastybento
+ *
+ */
+class WorldWarps {
+
+    private static final UUID[] NO_OWNERS = new UUID[0];
+
+    private final World world;
+    // Owner to packed sign position
+    private final UUIDLongMap positions = new UUIDLongMap();
+    // Packed sign position to owner
+    private final LongObjectMap<UUID> owners = new LongObjectMap<>();
+    // Packed chunk coordinates to owners of signs in that chunk
+    private final LongObjectMap<UUID[]> chunks = new LongObjectMap<>();
+
+    WorldWarps(@Nullable World world) {
+        this.world = world;
+    }
+
+    @Nullable
+    World getWorld() {
+        return world;
+    }
+
+    boolean contains(UUID owner) {
+        return positions.containsKey(owner);
+    }
+
+    /**
+     * @param owner - warp owner
+     * @return packed position or {@link UUIDLongMap#NO_VALUE}
+     */
+    long getPosition(UUID owner) {
+        return positions.get(owner);
+    }
+
+    @Nullable
+    UUID getOwner(long position) {
+        return owners.get(position);
+    }
+
+    /**
+     * Puts a warp. Any other warp at the same position is replaced.
+     * @param owner - warp owner
+     * @param position - packed sign position
+     */
+    void put(UUID owner, long position) {
+        remove(owner);
+        UUID previous = owners.get(position);
+        if (previous != null) {
+            remove(previous);
+        }
+        positions.put(owner, position);
+        owners.put(position, owner);
+        long chunk = WarpRegistry.chunkKey(position);
+        UUID[] inChunk = chunks.get(chunk);
+        if (inChunk == null) {
+            chunks.put(chunk, new UUID[] {owner});
+        } else {
+            UUID[] grown = Arrays.copyOf(inChunk, inChunk.length + 1);
+            grown[inChunk.length] = owner;
+            chunks.put(chunk, grown);
+        }
+    }
+
+    /**
+     * @param owner - warp owner
+     * @return packed position of the removed warp or {@link UUIDLongMap#NO_VALUE}
+     */
+    long remove(UUID owner) {
+        long position = positions.remove(owner);
+        if (position == UUIDLongMap.NO_VALUE) {
+            return position;
+        }
+        owners.remove(position);
+        long chunk = WarpRegistry.chunkKey(position);
+        UUID[] inChunk = chunks.get(chunk);
+        if (inChunk != null) {
+            if (inChunk.length == 1) {
+                chunks.remove(chunk);
+            } else {
+                chunks.put(chunk, Arrays.stream(inChunk).filter(u -> !u.equals(owner)).toArray(UUID[]::new));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @param chunk - packed chunk coordinates
+     * @return owners with a sign in this chunk, never null
+     */
+    UUID[] getChunk(long chunk) {
+        UUID[] inChunk = chunks.get(chunk);
+        return inChunk == null ? NO_OWNERS : inChunk;
+    }
+
+    /**
+     * @return packed coordinates of every chunk with a warp sign in it
+     */
+    long[] getChunkKeys() {
+        long[] result = new long[chunks.size()];
+        int[] i = {0};
+        chunks.forEach((key, owners) -> result[i[0]++] = key);
+        return result;
+    }
+
+    boolean hasChunk(long chunk) {
+        return chunks.containsKey(chunk);
+    }
+
+    int size() {
+        return positions.size();
+    }
+
+    void forEach(UUIDLongMap.Visitor visitor) {
+        positions.forEach(visitor);
+    }
+}
@@ -0,0 +1,119 @@
+package world.bentobox.warps;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import world.bentobox.bentobox.BentoBox;
+import world.bentobox.bentobox.Settings;
+import world.bentobox.bentobox.util.Util;
+
+/**
+ * @author tastybento
+ *
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Bukkit.class, Util.class})
+public class ChunkPreloaderTest {
+
+    @Mock
+    private Warp addon;
+    @Mock
+    private BentoBox plugin;
+    @Mock
+    private Settings settings;
+    @Mock
+    private World world;
+    @Mock
+    private Chunk chunk;
+    @Mock
+    private BukkitScheduler sch;
+    @Mock
+    private BukkitTask task;
+
+    private ChunkPreloader preloader;
+
+    /**
+     */
+    @Before
+    public void setUp() {
+        when(addon.getPlugin()).thenReturn(plugin);
+        when(plugin.getSettings()).thenReturn(settings);
+        when(settings.getDelayTime()).thenReturn(5);
+        PowerMockito.mockStatic(Bukkit.class, Mockito.RETURNS_MOCKS);
+        when(Bukkit.getScheduler()).thenReturn(sch);
+        when(sch.runTaskLater(any(), any(Runnable.class), anyLong())).thenReturn(task);
+        PowerMockito.mockStatic(Util.class);
+        when(Util.getChunkAtAsync(any(World.class), anyInt(), anyInt())).thenReturn(CompletableFuture.completedFuture(chunk));
+        preloader = new ChunkPreloader(addon);
+    }
+
+    @After
+    public void tearDown() {
+        Mockito.framework().clearInlineMocks();
+    }
+
+    /**
+     * Test method for {@link ChunkPreloader#preload(Location)}.
+     */
+    @Test
+    public void testPreload() {
+        Runnable release = preloader.preload(new Location(world, 8, 64, 8));
+        verify(world).addPluginChunkTicket(0, 0, plugin);
+        // Held until after the teleport delay
+        verify(sch).runTaskLater(eq(plugin), any(Runnable.class), eq(200L));
+        release.run();
+        verify(world).removePluginChunkTicket(0, 0, plugin);
+        verify(task).cancel();
+    }
+
+    /**
+     * Test method for {@link ChunkPreloader#preload(Location)}.
+     */
+    @Test
+    public void testPreloadChunkEdge() {
+        // Safety checks may look into the next chunks
+        preloader.preload(new Location(world, 15, 64, 0));
+        verify(world).addPluginChunkTicket(0, 0, plugin);
+        verify(world).addPluginChunkTicket(1, 0, plugin);
+        verify(world).addPluginChunkTicket(0, -1, plugin);
+        verify(world).addPluginChunkTicket(1, -1, plugin);
+    }
+
+    /**
+     * Test method for {@link ChunkPreloader#preload(Location)}.
+     */
+    @Test
+    public void testPreloadShared() {
+        Runnable first = preloader.preload(new Location(world, 8, 64, 8));
+        Runnable second = preloader.preload(new Location(world, 7, 64, 7));
+        first.run();
+        first.run();
+        // The other player still needs the chunk
+        verify(world, never()).removePluginChunkTicket(0, 0, plugin);
+        second.run();
+        verify(world).removePluginChunkTicket(0, 0, plugin);
+    }
+}
@@ -0,0 +1,317 @@
+package world.bentobox.warps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import world.bentobox.bentobox.database.AbstractDatabaseHandler;
+import world.bentobox.bentobox.database.DatabaseSetup;
+import world.bentobox.warps.config.Settings;
+import world.bentobox.warps.objects.SignCache;
+
+/**
+ * @author tastybento
+ *
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Bukkit.class, DatabaseSetup.class})
+public class SignCacheManagerTest {
+
+    @Mock
+    private Warp addon;
+    @Mock
+    private WarpSignsManager wsm;
+    @Mock
+    private Settings settings;
+    @Mock
+    private World world;
+    private static AbstractDatabaseHandler<Object> handler;
+
+    private final SignCacheItem sign = new SignCacheItem(Collections.singletonList("line"), Material.OAK_SIGN);
+    private SignCacheManager scm;
+
+    @SuppressWarnings("unchecked")
+    @BeforeClass
+    public static void beforeClass() {
+        // This has to be done beforeClass otherwise the tests will interfere with each other
+        handler = mock(AbstractDatabaseHandler.class);
+        // Database
+        PowerMockito.mockStatic(DatabaseSetup.class);
+        DatabaseSetup dbSetup = mock(DatabaseSetup.class);
+        when(DatabaseSetup.getDatabase()).thenReturn(dbSetup);
+        when(dbSetup.getHandler(any())).thenReturn(handler);
+    }
+
+    /**
+     */
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Bukkit.class, Mockito.RETURNS_MOCKS);
+        when(addon.getWarpSignsManager()).thenReturn(wsm);
+        when(addon.getSettings()).thenReturn(settings);
+        when(settings.getSignCacheSize()).thenReturn(2);
+        when(wsm.getSignInfo(any(), any())).thenReturn(sign);
+        when(world.getName()).thenReturn("world");
+        Mockito.clearInvocations(handler);
+        when(handler.saveObject(any())).thenReturn(CompletableFuture.completedFuture(true));
+        when(handler.loadObjects()).thenReturn(Collections.emptyList());
+        when(handler.objectExists(anyString())).thenReturn(false);
+        scm = new SignCacheManager(addon);
+    }
+
+    @After
+    public void tearDown() {
+        Mockito.framework().clearInlineMocks();
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#getSignItem(World, UUID)}.
+     */
+    @Test
+    public void testGetSignItem() {
+        UUID uuid = UUID.randomUUID();
+        assertSame(sign, scm.getSignItem(world, uuid));
+        assertSame(sign, scm.getSignItem(world, uuid));
+        verify(wsm).getSignInfo(world, uuid);
+        assertEquals(1, scm.getHits());
+        assertEquals(1, scm.getMisses());
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#getSignItem(World, UUID)}.
+     */
+    @Test
+    public void testGetSignItemEviction() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        scm.getSignItem(world, first);
+        scm.getSignItem(world, second);
+        // Use the first one so the second is the least recently used
+        scm.getSignItem(world, first);
+        scm.getSignItem(world, third);
+        assertEquals(2, scm.getSize());
+        assertEquals(1, scm.getEvictions());
+        // The first is still cached, the second is read from the world again
+        scm.getSignItem(world, first);
+        verify(wsm).getSignInfo(world, first);
+        scm.getSignItem(world, second);
+        verify(wsm, times(2)).getSignInfo(world, second);
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#getSignItem(World, UUID)}.
+     */
+    @Test
+    public void testGetSignItemChunkNotLoaded() {
+        UUID uuid = UUID.randomUUID();
+        when(wsm.getWarp(world, uuid)).thenReturn(new Location(world, 100, 64, -20));
+        when(world.isChunkLoaded(6, -2)).thenReturn(false);
+        assertSame(SignCacheManager.PLACEHOLDER, scm.getSignItem(world, uuid));
+        assertTrue(SignCacheManager.PLACEHOLDER.isReal());
+        // The sign is not read, so its chunk is not loaded, and the placeholder is not cached
+        verify(wsm, never()).getSignInfo(any(), any());
+        assertEquals(0, scm.getSize());
+        // Read once the chunk is loaded
+        when(world.isChunkLoaded(6, -2)).thenReturn(true);
+        assertSame(sign, scm.getSignItem(world, uuid));
+        verify(wsm).getSignInfo(world, uuid);
+        assertEquals(2, scm.getMisses());
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#getEvictions()}.
+     * @throws Exception exception
+     */
+    @Test
+    public void testLoadCacheNotEvictions() throws Exception {
+        Map<UUID, SignCacheItem> signs = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            signs.put(UUID.randomUUID(), sign);
+        }
+        when(Bukkit.getWorld("world")).thenReturn(world);
+        when(handler.loadObjects()).thenReturn(List.of(new SignCache(world, signs)));
+        scm = new SignCacheManager(addon);
+        assertEquals(2, scm.getSize());
+        assertEquals(0, scm.getEvictions());
+        // Evictions after loading are counted
+        scm.getSignItem(world, UUID.randomUUID());
+        assertEquals(1, scm.getEvictions());
+    }
+
+    /**
+     * Makes a stored sign cache document for the world that holds more signs than the cache
+     * @param owners - owners to store signs for
+     * @return stored signs
+     * @throws Exception exception
+     */
+    private Map<UUID, SignCacheItem> store(List<UUID> owners) throws Exception {
+        Map<UUID, SignCacheItem> signs = new HashMap<>();
+        owners.forEach(owner -> signs.put(owner, new SignCacheItem(Collections.singletonList(owner.toString()), Material.OAK_SIGN)));
+        when(Bukkit.getWorld("world")).thenReturn(world);
+        when(handler.loadObjects()).thenReturn(List.of(new SignCache(world, signs)));
+        when(handler.objectExists("world")).thenReturn(true);
+        when(handler.loadObject("world")).thenReturn(new SignCache(world, new HashMap<>(signs)));
+        return signs;
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#getSignItem(World, UUID)}.
+     * @throws Exception exception
+     */
+    @Test
+    public void testGetSignItemEvictedFromDatabase() throws Exception {
+        List<UUID> owners = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        Map<UUID, SignCacheItem> signs = store(owners);
+        scm = new SignCacheManager(addon);
+        assertEquals(2, scm.getSize());
+        when(world.isChunkLoaded(0, 0)).thenReturn(false);
+        for (UUID owner : owners) {
+            when(wsm.getWarp(world, owner)).thenReturn(new Location(world, 1, 2, 3));
+            // Cached or read from the database, never the placeholder
+            assertEquals(signs.get(owner), scm.getSignItem(world, owner));
+        }
+        verify(wsm, never()).getSignInfo(any(), any());
+        // The document is read once for all the misses
+        verify(handler).loadObject("world");
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#flushCache()}.
+     * @throws Exception exception
+     */
+    @Test
+    public void testFlushCacheKeepsEvicted() throws Exception {
+        List<UUID> owners = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        Map<UUID, SignCacheItem> signs = store(owners);
+        scm = new SignCacheManager(addon);
+        // A new sign and a removed one
+        UUID uuid = UUID.randomUUID();
+        scm.getSignItem(world, uuid);
+        scm.removeWarp(world, owners.get(0));
+        scm.flushCache();
+        ArgumentCaptor<Object> saved = ArgumentCaptor.forClass(Object.class);
+        verify(handler).saveObject(saved.capture());
+        Map<UUID, SignCacheItem> expected = new HashMap<>(signs);
+        expected.remove(owners.get(0));
+        expected.put(uuid, sign);
+        assertEquals(expected, ((SignCache)saved.getValue()).getSigns());
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#getSignItem(World, UUID)}.
+     */
+    @Test
+    public void testGetSignItemEvictedBeforeSave() {
+        when(settings.getSaveDelay()).thenReturn(100);
+        UUID first = UUID.randomUUID();
+        scm.getSignItem(world, first);
+        SignCacheItem edited = new SignCacheItem(Collections.singletonList("edited"), Material.OAK_SIGN);
+        scm.updateSign(world, first, edited);
+        // Push the edited sign out of the cache before it is saved
+        scm.getSignItem(world, UUID.randomUUID());
+        scm.getSignItem(world, UUID.randomUUID());
+        assertEquals(1, scm.getEvictions());
+        assertSame(edited, scm.getSignItem(world, first));
+        verify(wsm).getSignInfo(world, first);
+        scm.flushCache();
+        ArgumentCaptor<Object> saved = ArgumentCaptor.forClass(Object.class);
+        verify(handler).saveObject(saved.capture());
+        assertEquals(3, ((SignCache)saved.getValue()).getSigns().size());
+        assertSame(edited, ((SignCache)saved.getValue()).getSigns().get(first));
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#updateSign(World, UUID, SignCacheItem)}.
+     */
+    @Test
+    public void testUpdateSign() {
+        UUID uuid = UUID.randomUUID();
+        scm.getSignItem(world, uuid);
+        SignCacheItem edited = new SignCacheItem(Collections.singletonList("edited"), Material.OAK_SIGN);
+        scm.updateSign(world, uuid, edited);
+        assertSame(edited, scm.getSignItem(world, uuid));
+        verify(wsm).getSignInfo(world, uuid);
+        // Not a real sign any more
+        scm.updateSign(world, uuid, new SignCacheItem());
+        assertEquals(0, scm.getSize());
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#saveCache()}.
+     */
+    @Test
+    public void testSaveCacheNoChanges() {
+        scm.saveCache();
+        scm.flushCache();
+        verify(handler, never()).saveObject(any());
+        assertEquals(0, scm.getDocumentsWritten());
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#flushCache()}.
+     */
+    @Test
+    public void testFlushCacheChangedWorldsOnly() {
+        World other = mock(World.class);
+        when(other.getName()).thenReturn("other");
+        UUID uuid = UUID.randomUUID();
+        scm.getSignItem(world, uuid);
+        scm.flushCache();
+        verify(handler).saveObject(any());
+        assertEquals(1, scm.getDocumentsWritten());
+        assertTrue(scm.getBytesWritten() > 0);
+        // Same text again is not a change
+        scm.updateSign(world, uuid, new SignCacheItem(Collections.singletonList("line"), Material.OAK_SIGN));
+        scm.flushCache();
+        verify(handler).saveObject(any());
+        // Only the other world is written
+        scm.getSignItem(other, uuid);
+        scm.flushCache();
+        verify(handler, times(2)).saveObject(any());
+        assertEquals(2, scm.getDocumentsWritten());
+    }
+
+    /**
+     * Test method for {@link SignCacheManager#removeWarp(World, UUID)}.
+     */
+    @Test
+    public void testRemoveWarp() {
+        UUID uuid = UUID.randomUUID();
+        assertFalse(scm.removeWarp(world, uuid));
+        scm.getSignItem(world, uuid);
+        assertTrue(scm.removeWarp(world, uuid));
+        assertEquals(0, scm.getSize());
+    }
+}
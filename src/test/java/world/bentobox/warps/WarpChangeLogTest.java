@@ -0,0 +1,209 @@
+package world.bentobox.warps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import world.bentobox.bentobox.database.AbstractDatabaseHandler;
+import world.bentobox.bentobox.database.DatabaseSetup;
+import world.bentobox.warps.objects.WarpChange;
+
+/**
+ * @author tastybento
+ *
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({DatabaseSetup.class})
+public class WarpChangeLogTest {
+
+    @Mock
+    private Warp addon;
+    @Mock
+    private World world;
+    private static AbstractDatabaseHandler<Object> handler;
+
+    private final UUID uuid = UUID.randomUUID();
+    private WarpChangeLog log;
+
+    @SuppressWarnings("unchecked")
+    @BeforeClass
+    public static void beforeClass() {
+        // This has to be done beforeClass otherwise the tests will interfere with each other
+        handler = mock(AbstractDatabaseHandler.class);
+        // Database
+        PowerMockito.mockStatic(DatabaseSetup.class);
+        DatabaseSetup dbSetup = mock(DatabaseSetup.class);
+        when(DatabaseSetup.getDatabase()).thenReturn(dbSetup);
+        when(dbSetup.getHandler(any())).thenReturn(handler);
+    }
+
+    /**
+     */
+    @Before
+    public void setUp() {
+        Mockito.clearInvocations(handler);
+        when(handler.saveObject(any())).thenReturn(CompletableFuture.completedFuture(true));
+        when(handler.loadObjects()).thenReturn(new ArrayList<>());
+        when(world.getName()).thenReturn("world");
+        log = new WarpChangeLog(addon);
+    }
+
+    @After
+    public void tearDown() {
+        Mockito.framework().clearInlineMocks();
+    }
+
+    /**
+     * Test method for {@link WarpChangeLog#load(Map, java.util.function.Function)}.
+     */
+    @Test
+    public void testLoadInSequenceOrder() {
+        when(handler.loadObjects()).thenReturn(List.of(
+                new WarpChange(2, uuid, "world", 3L, true),
+                new WarpChange(0, uuid, "world", 1L, false),
+                new WarpChange(1, uuid, "world", 2L, false)));
+        List<Long> applied = new ArrayList<>();
+        log.load(Map.of(), change -> {
+            applied.add(change.getSequence());
+            return world;
+        });
+        assertEquals(List.of(0L, 1L, 2L), applied);
+        assertEquals(3, log.size());
+        assertEquals(Set.of(world), log.getChangedWorlds());
+        // New changes follow on from the loaded ones
+        log.put(uuid, new Location(world, 1, 2, 3));
+        log.flush();
+        ArgumentCaptor<Object> saved = ArgumentCaptor.forClass(Object.class);
+        verify(handler).saveObject(saved.capture());
+        assertEquals(3L, ((WarpChange)saved.getValue()).getSequence());
+    }
+
+    /**
+     * Test method for {@link WarpChangeLog#compacted(CompletableFuture)}.
+     */
+    @Test
+    public void testCompactedDeletesAfterFullSave() {
+        log.put(uuid, new Location(world, 1, 2, 3));
+        log.remove(uuid, new Location(world, 1, 2, 3));
+        log.flush();
+        CompletableFuture<Boolean> fullSave = new CompletableFuture<>();
+        log.compacted(fullSave);
+        assertEquals(0, log.size());
+        assertTrue(log.getChangedWorlds().isEmpty());
+        // Nothing is deleted until the full save is done
+        verify(handler, never()).deleteID(anyString());
+        fullSave.complete(true);
+        verify(handler).deleteID(String.format("%019d", 0));
+        verify(handler).deleteID(String.format("%019d", 1));
+    }
+
+    /**
+     * Test method for {@link WarpChangeLog#compacted(CompletableFuture)}.
+     */
+    @Test
+    public void testCompactedFullSaveFailed() {
+        log.put(uuid, new Location(world, 1, 2, 3));
+        log.flush();
+        World other = mock(World.class);
+        when(other.getName()).thenReturn("other");
+        log.put(uuid, new Location(other, 1, 2, 3));
+        CompletableFuture<Boolean> fullSave = new CompletableFuture<>();
+        log.compacted(fullSave);
+        // A change made while the full save runs
+        World third = mock(World.class);
+        when(third.getName()).thenReturn("third");
+        log.put(uuid, new Location(third, 1, 2, 3));
+        fullSave.complete(false);
+        verify(handler, never()).deleteID(anyString());
+        verify(addon).logWarning("Warps could not be saved! Keeping 2 changes.");
+        // Everything is kept for the next full save
+        assertEquals(3, log.size());
+        assertEquals(Set.of(world, other, third), log.getChangedWorlds());
+        log.compacted(CompletableFuture.completedFuture(true));
+        verify(handler).deleteID(String.format("%019d", 0));
+        assertEquals(0, log.size());
+    }
+
+    /**
+     * Test method for {@link WarpChangeLog#load(Map, java.util.function.Function)}.
+     */
+    @Test
+    public void testLoadSkipsSavedChanges() {
+        when(handler.loadObjects()).thenReturn(List.of(
+                new WarpChange(0, uuid, "world", 1L, false),
+                new WarpChange(1, uuid, "world", 1L, true),
+                new WarpChange(2, uuid, "world", 2L, false)));
+        List<Long> applied = new ArrayList<>();
+        // The saved warps include the first two changes, but the delete of their log entries did not finish
+        log.load(Map.of("world", 2L), change -> {
+            applied.add(change.getSequence());
+            return world;
+        });
+        assertEquals(List.of(2L), applied);
+        // All three are deleted at the next full save
+        assertEquals(3, log.size());
+        log.compacted(CompletableFuture.completedFuture(true));
+        verify(handler).deleteID(String.format("%019d", 0));
+        verify(handler).deleteID(String.format("%019d", 1));
+        verify(handler).deleteID(String.format("%019d", 2));
+    }
+
+    /**
+     * Test method for {@link WarpChangeLog#getSequence()}.
+     */
+    @Test
+    public void testLoadSequenceAfterSavedWarps() {
+        // All log entries were deleted after the last full save
+        log.load(Map.of("world", 7L, "nether", 3L), change -> world);
+        assertEquals(7L, log.getSequence());
+        log.put(uuid, new Location(world, 1, 2, 3));
+        assertEquals(8L, log.getSequence());
+    }
+
+    /**
+     * Test method for {@link WarpChangeLog#load(Map, java.util.function.Function)}.
+     */
+    @Test
+    public void testLoadKeepsChangesOfWorldsNotLoaded() {
+        WarpChange notLoaded = new WarpChange(0, uuid, "not_loaded", 1L, false);
+        WarpChange loaded = new WarpChange(1, uuid, "world", 2L, false);
+        when(handler.loadObjects()).thenReturn(List.of(notLoaded, loaded));
+        log.load(Map.of(), change -> change.getWorld().equals("world") ? world : null);
+        assertEquals(1, log.size());
+        log.compacted(CompletableFuture.completedFuture(true));
+        verify(handler).deleteID(loaded.getUniqueId());
+        verify(handler, never()).deleteID(notLoaded.getUniqueId());
+        // The next change does not reuse the sequence of the kept change
+        log.put(uuid, new Location(world, 1, 2, 3));
+        log.flush();
+        ArgumentCaptor<Object> saved = ArgumentCaptor.forClass(Object.class);
+        verify(handler).saveObject(saved.capture());
+        assertEquals(2L, ((WarpChange)saved.getValue()).getSequence());
+    }
+}
@@ -2,6 +2,10 @@ package world.bentobox.warps;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
@@ -22,6 +26,7 @@ import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemFactory;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -30,6 +35,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.stubbing.Answer;
@@ -38,10 +44,13 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import world.bentobox.bentobox.BentoBox;
+import world.bentobox.bentobox.api.panels.PanelItem;
+import world.bentobox.bentobox.api.panels.PanelListener;
 import world.bentobox.bentobox.api.panels.builders.PanelBuilder;
 import world.bentobox.bentobox.api.user.User;
 import world.bentobox.bentobox.database.AbstractDatabaseHandler;
 import world.bentobox.bentobox.database.DatabaseSetup;
+import world.bentobox.bentobox.managers.LocalesManager;
 import world.bentobox.bentobox.managers.PlayersManager;
 import world.bentobox.warps.config.Settings;
 
@@ -71,6 +80,9 @@ public class WarpPanelManagerTest {
     private static AbstractDatabaseHandler<Object> handler;
     @Mock
     private BukkitScheduler scheduler;
+    @Mock
+    private LocalesManager lm;
+    private PlayersManager pm;
     private List<UUID> list;
 
     // Class under test
@@ -102,19 +114,24 @@ public class WarpPanelManagerTest {
         UUID uuid = UUID.randomUUID();
         list.add(uuid);
 
-        when(wsm.getSortedWarps(any())).thenReturn(CompletableFuture.completedFuture(list));
+        when(wsm.getSortedWarps(any())).thenReturn(CompletableFuture.completedFuture(List.copyOf(list)));
 
         // User and player
         when(user.getPlayer()).thenReturn(player);
+        UUID viewer = UUID.randomUUID();
+        when(user.getUniqueId()).thenReturn(viewer);
+        when(player.getUniqueId()).thenReturn(viewer);
         when(user.getTranslation(any())).thenAnswer((Answer<String>) invocation -> invocation.getArgument(0, String.class));
 
 
         // BentoBox
         BentoBox plugin = mock(BentoBox.class);
-        PlayersManager pm = mock(PlayersManager.class);
+        pm = mock(PlayersManager.class);
         when(pm.getName(any())).thenReturn("name");
         when(plugin.getPlayers()).thenReturn(pm);
         when(addon.getPlugin()).thenReturn(plugin);
+        when(plugin.getLocalesManager()).thenReturn(lm);
+        when(lm.get(any(User.class), any())).thenAnswer((Answer<String>) invocation -> invocation.getArgument(1, String.class));
 
         // Bukkit
         PowerMockito.mockStatic(Bukkit.class, Mockito.RETURNS_MOCKS);
@@ -130,6 +147,7 @@ public class WarpPanelManagerTest {
         when(Bukkit.createInventory(any(), anyInt(), any())).thenReturn(top);
 
         when(settings.getIcon()).thenReturn("SIGN");
+        when(settings.getSignCacheSize()).thenReturn(1000);
         when(addon.getSettings()).thenReturn(settings);
 
         Location location = mock(Location.class);
@@ -164,10 +182,168 @@ public class WarpPanelManagerTest {
         wpm.processSigns(new CompletableFuture<>(), pb, user, 3, world);
         // Get the panel again
         wpm.processSigns(new CompletableFuture<>(), pb, user, 3, world);
-        // Should only check this 201 times in total because the sign text  is cached
-        verify(wsm, times(201)).getSignInfo(any(), any());
+        // Should only check the 45 signs on the last page once because the sign text is cached
+        verify(wsm, times(45)).getSignInfo(any(), any());
+    }
+
+    /**
+     * Test method for {@link WarpPanelManager#processSigns(CompletableFuture, PanelBuilder, User, int, World)}.
+     */
+    @Test
+    public void testProcessSignsRandomAllowed() {
+        when(settings.isRandomAllowed()).thenReturn(true);
+        PanelBuilder pb = mock(PanelBuilder.class);
+        CompletableFuture<Void> r = new CompletableFuture<>();
+        wpm.processSigns(r, pb, user, 0, world);
+        // The panel is built even though the sorted warps cannot be changed
+        assertTrue(r.isDone());
+        verify(user).getTranslation("warps.random");
+        // Random button, 51 warps and next
+        verify(pb, times(53)).item(any());
+    }
+
+    /**
+     * Test method for {@link WarpPanelManager#processSigns(CompletableFuture, PanelBuilder, User, int, World)}.
+     */
+    @Test
+    public void testProcessSignsPrefetchNextPage() {
+        when(settings.isPrefetchNextPage()).thenReturn(true);
+        PanelBuilder pb = mock(PanelBuilder.class);
+        wpm.processSigns(new CompletableFuture<>(), pb, user, 0, world);
+        // Only the first page is looked up
+        verify(wsm, times(52)).getSignInfo(any(), any());
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).runTask(any(), task.capture());
+        task.getValue().run();
+        // Now the second page too
+        verify(wsm, times(104)).getSignInfo(any(), any());
+    }
+
+    /**
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}.
+     */
+    @Test
+    public void testBuildMainBodyCleanUp() {
+        UUID gone = list.get(1);
+        when(wsm.getSignInfo(world, gone)).thenReturn(new SignCacheItem());
+        PanelBuilder pb = mock(PanelBuilder.class);
+        assertEquals(52, wpm.buildMainBody(pb, user, 0, world, list));
+        verify(pb, times(51)).item(any());
+        // Removed later
+        verify(wsm, never()).removeWarpFromMap(any(), any());
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).runTask(any(), task.capture());
+        task.getValue().run();
+        verify(wsm).removeWarpFromMap(world, gone);
+        verify(wsm).saveWarpList();
+    }
+
+
+    /**
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}.
+     */
+    @Test
+    public void testBuildMainBodyReusesWarpItems() {
+        PanelBuilder pb = mock(PanelBuilder.class);
+        wpm.buildMainBody(pb, user, 3, world, list);
+        PanelBuilder pb2 = mock(PanelBuilder.class);
+        wpm.buildMainBody(pb2, user, 3, world, list);
+        ArgumentCaptor<PanelItem> first = ArgumentCaptor.forClass(PanelItem.class);
+        verify(pb, times(45)).item(first.capture());
+        ArgumentCaptor<PanelItem> second = ArgumentCaptor.forClass(PanelItem.class);
+        verify(pb2, times(45)).item(second.capture());
+        for (int i = 0; i < 45; i++) {
+            // Each panel gets its own items, made without looking up the names again
+            assertNotSame(first.getAllValues().get(i), second.getAllValues().get(i));
+            assertEquals(first.getAllValues().get(i).getName(), second.getAllValues().get(i).getName());
+        }
+        verify(pm, times(45)).getName(any());
+        // Removing a warp looks up its name again
+        wpm.removeWarp(world, list.get(200));
+        PanelBuilder pb3 = mock(PanelBuilder.class);
+        wpm.buildMainBody(pb3, user, 3, world, list);
+        verify(pm, times(46)).getName(any());
+    }
+
+    /**
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}.
+     */
+    @Test
+    public void testBuildMainBodyEvictedSignsDropWarpItems() {
+        when(settings.getSignCacheSize()).thenReturn(50);
+        wpm = new WarpPanelManager(addon);
+        wpm.buildMainBody(mock(PanelBuilder.class), user, 3, world, list);
+        wpm.buildMainBody(mock(PanelBuilder.class), user, 3, world, list);
+        verify(pm, times(45)).getName(any());
+        // The 52 signs of another page push the first page's signs out of the cache
+        wpm.buildMainBody(mock(PanelBuilder.class), user, 2, world, list);
+        verify(pm, times(97)).getName(any());
+        // So their items were dropped too
+        wpm.buildMainBody(mock(PanelBuilder.class), user, 3, world, list);
+        verify(pm, times(142)).getName(any());
     }
 
+    /**
+     * Test method for {@link WarpPanelManager#addNavigation(PanelBuilder, User, World, int, int, int)}
+     */
+    @Test
+    public void testAddNavigationTranslatesOnce() {
+        PanelBuilder pb = mock(PanelBuilder.class);
+        wpm.addNavigation(pb, user, world, 60, 2, 100);
+        wpm.addNavigation(pb, user, world, 60, 2, 100);
+        verify(user).getTranslation("warps.previous");
+        verify(user).getTranslation("warps.next");
+        // Reloading translates again
+        wpm.clearPanelItems();
+        wpm.addNavigation(pb, user, world, 60, 2, 100);
+        verify(user, times(2)).getTranslation("warps.next");
+    }
+
+    /**
+     * Test method for {@link WarpPanelManager#addNavigation(PanelBuilder, User, World, int, int, int)}
+     */
+    @Test
+    public void testAddNavigationPlaceholdersTranslatedEachTime() {
+        when(lm.get(user, "warps.next")).thenReturn("%player_name% next");
+        PanelBuilder pb = mock(PanelBuilder.class);
+        wpm.addNavigation(pb, user, world, 60, 2, 100);
+        wpm.addNavigation(pb, user, world, 60, 2, 100);
+        verify(user).getTranslation("warps.previous");
+        verify(user, times(2)).getTranslation("warps.next");
+    }
+
+    /**
+     * Test method for {@link WarpPanelManager#buildPage(PanelBuilder, User, int, WarpPanelManager.PanelSession)}.
+     */
+    @Test
+    public void testBuildPageFromSession() {
+        PanelBuilder pb = mock(PanelBuilder.class);
+        wpm.processSigns(new CompletableFuture<>(), pb, user, 0, world);
+        WarpPanelManager.PanelSession session = wpm.getSession(user);
+        assertNotNull(session);
+        assertEquals(201, session.getWarps().size());
+        // Turning the page uses the warps of the session
+        PanelBuilder pb2 = mock(PanelBuilder.class);
+        wpm.buildPage(pb2, user, 1, session);
+        verify(wsm).getSortedWarps(world);
+        // 52 warps and previous and next
+        verify(pb2, times(54)).item(any());
+    }
+
+    /**
+     * Test method for {@link WarpPanelManager#processSigns(CompletableFuture, PanelBuilder, User, int, World)}.
+     */
+    @Test
+    public void testSessionEndsOnClose() {
+        PanelBuilder pb = mock(PanelBuilder.class);
+        wpm.processSigns(new CompletableFuture<>(), pb, user, 0, world);
+        ArgumentCaptor<PanelListener> listener = ArgumentCaptor.forClass(PanelListener.class);
+        verify(pb).listener(listener.capture());
+        InventoryCloseEvent e = mock(InventoryCloseEvent.class);
+        when(e.getPlayer()).thenReturn(player);
+        listener.getValue().onInventoryClose(e);
+        assertNull(wpm.getSession(user));
+    }
 
     /**
      * Test method for {@link WarpPanelManager#removeWarp(org.bukkit.World, java.util.UUID)}.
@@ -184,8 +360,8 @@ public class WarpPanelManagerTest {
     public void testBuildPanel() {
         PanelBuilder pb = mock(PanelBuilder.class);
         wpm.buildPanel(pb, user, 3, world);
-        // Removing the UUID should force a refresh and therefore 201 lookups
-        verify(wsm, times(201)).getSignInfo(any(), any());
+        // Only the signs on the page are looked up
+        verify(wsm, times(45)).getSignInfo(any(), any());
 
     }
 
@@ -248,31 +424,31 @@ public class WarpPanelManagerTest {
     }
 
     /**
-     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List, boolean)}
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}
      */
     @Test
     public void testBuildMainBodyNoRandomPage0() {
-        assertEquals(201, mainBod(0, 201, false));
+        assertEquals(52, mainBod(0, 52, false));
     }
 
     /**
-     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List, boolean)}
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}
      */
     @Test
     public void testBuildMainBodyNoRandomPage1() {
-        assertEquals(201, mainBod(1, 149, false));
+        assertEquals(104, mainBod(1, 52, false));
     }
 
     /**
-     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List, boolean)}
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}
      */
     @Test
     public void testBuildMainBodyNoRandomPage2() {
-        assertEquals(201, mainBod(2, 97, false));
+        assertEquals(156, mainBod(2, 52, false));
     }
 
     /**
-     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List, boolean)}
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}
      */
     @Test
     public void testBuildMainBodyNoRandomPage3() {
@@ -280,39 +456,39 @@ public class WarpPanelManagerTest {
     }
 
     /**
-     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List, boolean)}
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}
      */
     @Test
     public void testBuildMainBodyNoRandomPageMinus1() {
-        assertEquals(201, mainBod(-1, 201, false));
+        assertEquals(52, mainBod(-1, 52, false));
     }
 
     /**
-     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List, boolean)}
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}
      */
     @Test
     public void testBuildMainBodyRandomPage0() {
-        assertEquals(201, mainBod(0, 201, true));
+        assertEquals(52, mainBod(0, 52, true));
     }
 
     /**
-     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List, boolean)}
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}
      */
     @Test
     public void testBuildMainBodyRandomPage1() {
-        assertEquals(201, mainBod(1, 149, true));
+        assertEquals(104, mainBod(1, 52, true));
     }
 
     /**
-     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List, boolean)}
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}
      */
     @Test
     public void testBuildMainBodyRandomPage2() {
-        assertEquals(201, mainBod(2, 97, true));
+        assertEquals(156, mainBod(2, 52, true));
     }
 
     /**
-     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List, boolean)}
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}
      */
     @Test
     public void testBuildMainBodyRandomPage3() {
@@ -320,10 +496,10 @@ public class WarpPanelManagerTest {
     }
 
     /**
-     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List, boolean)}
+     * Test method for {@link WarpPanelManager#buildMainBody(PanelBuilder, User, int, World, List)}
      */
     @Test
     public void testBuildMainBodyRandomPageMinus1() {
-        assertEquals(201, mainBod(-1, 201, true));
+        assertEquals(52, mainBod(-1, 52, true));
     }
 }
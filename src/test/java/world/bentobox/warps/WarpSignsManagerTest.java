@@ -3,19 +3,24 @@ package world.bentobox.warps;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
@@ -34,12 +39,15 @@ import org.bukkit.block.Sign;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerTeleportEvent.TeleportCause;
 import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
 import org.eclipse.jdt.annotation.Nullable;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.stubbing.Answer;
@@ -61,7 +69,11 @@ import world.bentobox.bentobox.managers.PlayersManager;
 import world.bentobox.bentobox.util.Util;
 import world.bentobox.warps.config.Settings;
 import world.bentobox.warps.event.WarpInitiateEvent;
+import world.bentobox.warps.objects.LastPlayedData;
+import world.bentobox.warps.objects.WarpChange;
 import world.bentobox.warps.objects.WarpsData;
+import world.bentobox.warps.objects.WorldWarpsData;
+import world.bentobox.warps.registry.WarpRegistry;
 
 /**
  * @author tastybento
@@ -130,6 +142,7 @@ public class WarpSignsManagerTest {
      */
     @Before
     public void setUp() throws Exception {
+        Mockito.clearInvocations(handler);
         Whitebox.setInternalState(BentoBox.class, "instance", plugin);
         when(addon.getPlugin()).thenReturn(plugin);
         when(addon.getLogger()).thenReturn(logger);
@@ -168,6 +181,7 @@ public class WarpSignsManagerTest {
         when(player.getLocation()).thenReturn(location);
         when(world.getEnvironment()).thenReturn(Environment.NORMAL);
         when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(true);
+        when(world.getBlockAt(any(Location.class))).thenReturn(block);
 
         // Block
         when(block.getType()).thenReturn(Material.ACACIA_SIGN);
@@ -184,16 +198,24 @@ public class WarpSignsManagerTest {
         when(block.getRelative(any())).thenReturn(block);
 
         // Handler
+        when(handler.objectExists(anyString())).thenReturn(false);
         when(handler.objectExists("warps")).thenReturn(true);
         Map<Location, UUID> warpMap = Collections.singletonMap(location, uuid);
         when(load.getWarpSigns()).thenReturn(warpMap);
         when(handler.loadObject(anyString())).thenReturn(load);
+        when(handler.saveObject(any())).thenReturn(CompletableFuture.completedFuture(true));
+        // No logged changes
+        when(handler.loadObjects()).thenReturn(Collections.emptyList());
 
         // Settings
         when(addon.getSettings()).thenReturn(settings);
         when(settings.getWelcomeLine()).thenReturn("[Welcome]");
         when(settings.getLoreFormat()).thenReturn("&f");
         when(settings.getIcon()).thenReturn("SIGN");
+        when(settings.getSaveDelay()).thenReturn(100);
+        when(settings.getLastPlayedSaveDelay()).thenReturn(6000);
+        when(settings.getMaxWarps()).thenReturn(600);
+        when(settings.getTabCompleteLimit()).thenReturn(50);
 
         // Bukkit
         PowerMockito.mockStatic(Bukkit.class, Mockito.RETURNS_MOCKS);
@@ -254,7 +276,20 @@ public class WarpSignsManagerTest {
     public void testGetWarpMapWrongBlockType() {
         when(block.getType()).thenReturn(Material.COAL_ORE);
         wsm = new WarpSignsManager(addon, plugin);
+        // Signs are only checked by the validator
+        assertFalse(wsm.getWarpMap(world).isEmpty());
+        new WarpValidator(addon, wsm, wsm.getRegistry()).run();
         assertTrue("Map is not empty", wsm.getWarpMap(world).isEmpty());
+        verify(wpm).removeWarp(world, uuid);
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#removeMissingSigns(World, int, int)}.
+     */
+    @Test
+    public void testRemoveMissingSignsSignExists() {
+        assertFalse(wsm.removeMissingSigns(world, 23 >> 4, 25 >> 4));
+        assertFalse(wsm.getWarpMap(world).isEmpty());
     }
 
     /**
@@ -296,7 +331,8 @@ public class WarpSignsManagerTest {
     public void testWarpSignsManager() {
         verify(addon).log("Loading warps...");
         verify(load).getWarpSigns();
-        verify(block).getType();
+        // Signs are not checked while loading
+        verify(block, never()).getType();
     }
 
     /**
@@ -356,7 +392,7 @@ public class WarpSignsManagerTest {
      */
     @Test
     public void testGetWarp() {
-        assertEquals(location, wsm.getWarp(world, uuid));
+        assertEquals(new Location(world, 23, 24, 25), wsm.getWarp(world, uuid));
     }
 
     /**
@@ -367,13 +403,126 @@ public class WarpSignsManagerTest {
         assertEquals("tastybento", wsm.getWarpOwner(location));
     }
 
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#getWarpsInChunk(org.bukkit.World, int, int)}.
+     */
+    @Test
+    public void testGetWarpsInChunk() {
+        assertTrue(wsm.hasWarpsInChunk(world, 1, 1));
+        assertEquals(Collections.singleton(uuid), wsm.getWarpsInChunk(world, 1, 1));
+        assertFalse(wsm.hasWarpsInChunk(world, 0, 1));
+        assertTrue(wsm.getWarpsInChunk(world, 0, 1).isEmpty());
+        wsm.removeWarp(world, uuid);
+        assertFalse(wsm.hasWarpsInChunk(world, 1, 1));
+    }
+
     /**
      * Test method for {@link world.bentobox.warps.WarpSignsManager#getSortedWarps(org.bukkit.World)}.
      */
     @Test
     public void testGetSortedWarps() {
-        CompletableFuture<List<UUID>> r = new CompletableFuture<>();
-        assertEquals(1, wsm.processWarpMap(r, world).size());
+        assertEquals(List.of(uuid), wsm.getSortedWarps(world).join());
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#getSortedWarps(org.bukkit.World)}.
+     */
+    @Test
+    public void testGetSortedWarpsMaxWarps() {
+        when(settings.getMaxWarps()).thenReturn(2);
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        wsm.addWarp(second, new Location(world, 1, 2, 3));
+        wsm.addWarp(third, new Location(world, 4, 5, 6));
+        wsm.setLastPlayed(uuid, 100L);
+        wsm.setLastPlayed(second, 300L);
+        wsm.setLastPlayed(third, 200L);
+        // Only the most recent players are kept
+        assertEquals(List.of(second, third), wsm.getSortedWarps(world).join());
+        wsm.setLastPlayed(uuid, 400L);
+        assertEquals(List.of(uuid, second), wsm.getSortedWarps(world).join());
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#getWarpNames(World, String)}.
+     */
+    @Test
+    public void testGetWarpNames() {
+        wsm.setName(uuid, "tastybento");
+        assertEquals(List.of("tastybento"), wsm.getWarpNames(world, "TAS"));
+        assertTrue(wsm.getWarpNames(world, "bonne").isEmpty());
+        when(settings.getTabCompleteLimit()).thenReturn(0);
+        assertTrue(wsm.getWarpNames(world, "tas").isEmpty());
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#findWarp(World, String)}.
+     */
+    @Test
+    public void testFindWarp() {
+        wsm.setName(uuid, "tastybento");
+        assertEquals(uuid, wsm.findWarp(world, "TastyBento"));
+        assertEquals(uuid, wsm.findWarp(world, "tasty"));
+        assertNull(wsm.findWarp(world, "bonne"));
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#WarpSignsManager(world.bentobox.warps.Warp, world.bentobox.bentobox.BentoBox)}.
+     */
+    @Test
+    public void testWarpSignsManagerSeedsNames() {
+        // Names are not looked up while loading
+        assertNull(wsm.findWarp(world, "tastybento"));
+        verify(pm, never()).getName(any());
+        // They are looked up in the background
+        BukkitScheduler scheduler = mock(BukkitScheduler.class);
+        Answer<BukkitTask> run = invocation -> {
+            invocation.getArgument(1, Runnable.class).run();
+            return null;
+        };
+        when(scheduler.runTaskAsynchronously(any(), any(Runnable.class))).thenAnswer(run);
+        when(scheduler.runTask(any(), any(Runnable.class))).thenAnswer(run);
+        when(Bukkit.getScheduler()).thenReturn(scheduler);
+        when(Bukkit.getOfflinePlayer(any(UUID.class))).thenReturn(offlinePlayer);
+        when(offlinePlayer.getName()).thenReturn("tastybento");
+        wsm = new WarpSignsManager(addon, plugin);
+        assertEquals(uuid, wsm.findWarp(world, "tastybento"));
+        verify(pm, never()).getName(any());
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#hasWarps(org.bukkit.World)}.
+     */
+    @Test
+    public void testHasWarps() {
+        assertTrue(wsm.hasWarps(world));
+        assertEquals(1, wsm.getWarpCount(world));
+        // The owner set is only made again when the warps change
+        assertSame(wsm.listWarps(world), wsm.listWarps(world));
+        wsm.removeWarp(world, uuid);
+        assertFalse(wsm.hasWarps(world));
+        assertEquals(0, wsm.getWarpCount(world));
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#getWarpPage(World, String, int, int)}.
+     */
+    @Test
+    public void testGetWarpPage() {
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        wsm.addWarp(second, new Location(world, 1, 2, 3));
+        wsm.addWarp(third, new Location(world, 4, 5, 6));
+        wsm.setLastPlayed(uuid, 300L);
+        wsm.setLastPlayed(second, 200L);
+        wsm.setLastPlayed(third, 100L);
+        assertEquals(List.of(uuid, second), wsm.getWarpPage(world, null, 0, 2));
+        assertEquals(List.of(third), wsm.getWarpPage(world, null, 1, 2));
+        assertTrue(wsm.getWarpPage(world, null, 2, 2).isEmpty());
+        assertTrue(wsm.getWarpPage(world, null, -1, 2).isEmpty());
+        // Filtered by name
+        assertEquals(List.of(uuid), wsm.getWarpPage(world, "TASTY", 0, 2));
+        assertTrue(wsm.getWarpPage(world, "bonne", 0, 2).isEmpty());
     }
 
     /**
@@ -410,7 +559,220 @@ public class WarpSignsManagerTest {
     @Test
     public void testSaveWarpList() throws Exception {
         wsm.saveWarpList();
+        verify(wpm).saveCache();
+        wsm.flushSaves();
         verify(handler, Mockito.atLeastOnce()).saveObject(any());
+        verify(wpm).flushCache();
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#flushSaves()}.
+     */
+    @Test
+    public void testFlushSavesWaitsForDatabase() {
+        when(world.getName()).thenReturn("world");
+        wsm.addWarp(UUID.randomUUID(), new Location(world, 1, 2, 3));
+        CompletableFuture<Boolean> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("database closed"));
+        when(handler.saveObject(any())).thenReturn(failed);
+        wsm.flushSaves();
+        // The result of the save is waited for
+        verify(addon).logError(anyString());
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#saveWarpList()}.
+     */
+    @Test
+    public void testSaveWarpListIncremental() {
+        when(settings.isIncrementalSaves()).thenReturn(true);
+        when(settings.getCompactionThreshold()).thenReturn(3);
+        when(world.getName()).thenReturn("world");
+        // Start from a full save
+        wsm.flushSaves();
+        Mockito.clearInvocations(handler);
+        // Only the change is written
+        wsm.addWarp(UUID.randomUUID(), new Location(world, 1, 2, 3));
+        wsm.flushSaves();
+        verify(handler).saveObject(any(WarpChange.class));
+        verify(handler, never()).saveObject(any(WorldWarpsData.class));
+        // Enough changes for a full save
+        wsm.addWarp(UUID.randomUUID(), new Location(world, 4, 5, 6));
+        wsm.addWarp(UUID.randomUUID(), new Location(world, 7, 8, 9));
+        wsm.flushSaves();
+        verify(handler).saveObject(any(WorldWarpsData.class));
+        // The logged changes are deleted after the full save
+        verify(handler).deleteID(String.format("%019d", 0));
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#loadWarpList()}.
+     */
+    @Test
+    public void testLoadWarpListReplaysChanges() {
+        when(world.getName()).thenReturn("world");
+        when(Bukkit.getWorld("world")).thenReturn(world);
+        UUID other = UUID.randomUUID();
+        // Out of order, as the database may give them
+        when(handler.loadObjects()).thenReturn(List.of(
+                new WarpChange(2, other, "world", WarpRegistry.pack(4, 5, 6), false),
+                new WarpChange(0, other, "world", WarpRegistry.pack(1, 2, 3), false),
+                new WarpChange(1, other, "world", WarpRegistry.pack(1, 2, 3), true),
+                new WarpChange(3, uuid, "world", WarpRegistry.pack(23, 24, 25), true)));
+        for (int i = 0; i < 2; i++) {
+            // Replaying again, e.g., after a reload before a full save, gives the same warps
+            wsm = new WarpSignsManager(addon, plugin);
+            assertEquals(Set.of(other), wsm.getWarpMap(world).keySet());
+            Location loc = wsm.getWarp(world, other);
+            assertEquals(4, loc.getBlockX());
+            assertEquals(5, loc.getBlockY());
+            assertEquals(6, loc.getBlockZ());
+        }
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#loadWarpList()}.
+     */
+    @Test
+    public void testLoadWarpListMigratesLegacy() {
+        when(world.getName()).thenReturn("world");
+        Mockito.clearInvocations(handler);
+        wsm = new WarpSignsManager(addon, plugin);
+        ArgumentCaptor<Object> saved = ArgumentCaptor.forClass(Object.class);
+        verify(handler).saveObject(saved.capture());
+        WorldWarpsData data = (WorldWarpsData)saved.getValue();
+        assertEquals("world", data.getUniqueId());
+        assertEquals(Map.of(uuid, WarpRegistry.pack(23, 24, 25)), data.getWarps());
+        verify(handler).deleteID("warps");
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#loadWarpList()}.
+     */
+    @Test
+    public void testLoadWarpListLegacyDeletedAfterSaves() {
+        when(world.getName()).thenReturn("world");
+        CompletableFuture<Boolean> save = new CompletableFuture<>();
+        when(handler.saveObject(any())).thenReturn(save);
+        Mockito.clearInvocations(handler);
+        wsm = new WarpSignsManager(addon, plugin);
+        verify(handler).saveObject(any(WorldWarpsData.class));
+        verify(handler, never()).deleteID("warps");
+        save.complete(true);
+        verify(handler).deleteID("warps");
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#loadWarpList()}.
+     */
+    @Test
+    public void testLoadWarpListPartlyMigrated() {
+        World nether = mock(World.class);
+        when(nether.getName()).thenReturn("nether");
+        when(world.getName()).thenReturn("world");
+        when(Bukkit.getWorlds()).thenReturn(List.of(world, nether));
+        UUID other = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        // Legacy object still has the warps of both worlds
+        when(load.getWarpSigns()).thenReturn(Map.of(location, uuid, new Location(nether, 1, 2, 3), other));
+        // The world was migrated and its warps changed since
+        when(handler.objectExists("world")).thenReturn(true);
+        when(handler.loadObject("world")).thenReturn(new WorldWarpsData("world",
+                Map.of(uuid, WarpRegistry.pack(7, 8, 9), third, WarpRegistry.pack(5, 5, 5))));
+        Mockito.clearInvocations(handler);
+        wsm = new WarpSignsManager(addon, plugin);
+        assertEquals(Set.of(uuid, third), wsm.getWarpMap(world).keySet());
+        assertEquals(7, wsm.getWarp(world, uuid).getBlockX());
+        assertEquals(Set.of(other), wsm.getWarpMap(nether).keySet());
+        // Only the world that was not migrated is written
+        ArgumentCaptor<Object> saved = ArgumentCaptor.forClass(Object.class);
+        verify(handler).saveObject(saved.capture());
+        assertEquals("nether", ((WorldWarpsData)saved.getValue()).getUniqueId());
+        verify(handler).deleteID("warps");
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#addWarp(UUID, Location)}.
+     */
+    @Test
+    public void testAddWarpOtherWorldReload() {
+        World nether = mock(World.class);
+        when(nether.getName()).thenReturn("nether");
+        when(nether.getBlockAt(any(Location.class))).thenReturn(block);
+        when(Util.getWorld(nether)).thenReturn(world);
+        when(world.getName()).thenReturn("world");
+        // The nether is loaded first, so a stale warp in the overworld would win
+        when(Bukkit.getWorlds()).thenReturn(List.of(nether, world));
+        wsm = new WarpSignsManager(addon, plugin);
+        // The owner moves their warp to the nether of the same game mode
+        assertTrue(wsm.addWarp(uuid, new Location(nether, 1, 2, 3)));
+        Mockito.clearInvocations(handler);
+        wsm.flushSaves();
+        // Both worlds are written
+        ArgumentCaptor<Object> saved = ArgumentCaptor.forClass(Object.class);
+        verify(handler, atLeastOnce()).saveObject(saved.capture());
+        Map<String, WorldWarpsData> worlds = new HashMap<>();
+        saved.getAllValues().stream().filter(WorldWarpsData.class::isInstance).map(WorldWarpsData.class::cast)
+        .forEach(data -> worlds.put(data.getUniqueId(), data));
+        assertEquals(Set.of("world", "nether"), worlds.keySet());
+        assertTrue(worlds.get("world").getWarps().isEmpty());
+        // Reload from the saved worlds
+        when(handler.objectExists("warps")).thenReturn(false);
+        worlds.forEach((name, data) -> {
+            when(handler.objectExists(name)).thenReturn(true);
+            when(handler.loadObject(name)).thenReturn(data);
+        });
+        wsm = new WarpSignsManager(addon, plugin);
+        assertEquals(Set.of(uuid), wsm.getWarpMap(world).keySet());
+        assertEquals(nether, wsm.getWarp(world, uuid).getWorld());
+        assertEquals(1, wsm.getWarp(world, uuid).getBlockX());
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#setLastPlayed(UUID, long)}.
+     */
+    @Test
+    public void testSetLastPlayedNotOwner() {
+        // Players without a warp are not kept or saved
+        wsm.setLastPlayed(UUID.randomUUID(), 100L);
+        wsm.flushSaves();
+        verify(handler, never()).saveObject(any(LastPlayedData.class));
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#setLastPlayed(UUID, long)}.
+     */
+    @Test
+    public void testSetLastPlayedRemovedOwner() {
+        UUID other = UUID.randomUUID();
+        wsm.addWarp(other, new Location(world, 1, 2, 3));
+        wsm.setLastPlayed(uuid, 100L);
+        wsm.removeWarp(world, other);
+        wsm.flushSaves();
+        // Owners whose warps were removed are dropped when saving
+        ArgumentCaptor<Object> saved = ArgumentCaptor.forClass(Object.class);
+        verify(handler, Mockito.atLeastOnce()).saveObject(saved.capture());
+        LastPlayedData data = saved.getAllValues().stream().filter(LastPlayedData.class::isInstance)
+                .map(LastPlayedData.class::cast).findFirst().orElseThrow();
+        assertEquals(Set.of(uuid), data.getLastPlayed().keySet());
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#setLastPlayed(UUID, long)}.
+     */
+    @Test
+    public void testSetLastPlayed() throws Exception {
+        UUID other = UUID.randomUUID();
+        Location otherLoc = new Location(world, 1, 2, 3);
+        wsm.addWarp(other, otherLoc);
+        wsm.setLastPlayed(uuid, 200L);
+        wsm.setLastPlayed(other, 100L);
+        assertEquals(List.of(uuid, other), wsm.getSortedWarps(world).join());
+        wsm.setLastPlayed(other, 300L);
+        assertEquals(List.of(other, uuid), wsm.getSortedWarps(world).join());
+        // Last played times are saved
+        wsm.flushSaves();
+        verify(handler).saveObject(any(LastPlayedData.class));
     }
 
     /**
@@ -422,6 +784,23 @@ public class WarpSignsManagerTest {
         assertEquals(Material.ACACIA_SIGN, sc.getType());
     }
 
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#clearIcon(UUID)}.
+     */
+    @Test
+    public void testGetSignInfoIconCached() {
+        when(settings.getIcon()).thenReturn("DIAMOND");
+        assertEquals(Material.DIAMOND, wsm.getSignInfo(world, uuid).getType());
+        // The icon is cached until it is cleared
+        when(settings.getIcon()).thenReturn("EMERALD");
+        assertEquals(Material.DIAMOND, wsm.getSignInfo(world, uuid).getType());
+        wsm.clearIcon(uuid);
+        assertEquals(Material.EMERALD, wsm.getSignInfo(world, uuid).getType());
+        when(settings.getIcon()).thenReturn("GOLD_INGOT");
+        wsm.clearIcons();
+        assertEquals(Material.GOLD_INGOT, wsm.getSignInfo(world, uuid).getType());
+    }
+
     /**
      * Test method for {@link world.bentobox.warps.WarpSignsManager#warpPlayer(org.bukkit.World, world.bentobox.bentobox.api.user.User, java.util.UUID)}.
      */
@@ -440,6 +819,50 @@ public class WarpSignsManagerTest {
         verify(player).sendMessage("warps.player-warped");
     }
 
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#clearDestinations(World, int, int)}.
+     */
+    @Test
+    public void testWarpPlayerDestinationCached() {
+        Player p = mock(Player.class);
+        when(p.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(p.getWorld()).thenReturn(world);
+        when(p.getLocation()).thenReturn(location);
+        @Nullable
+        User u = User.getInstance(p);
+        wsm.warpPlayer(world, u, uuid);
+        wsm.warpPlayer(world, u, uuid);
+        // Safety is only checked once
+        verify(im).isSafeLocation(any());
+        // A block change far away keeps the destination
+        wsm.clearDestinations(world, 100, 100);
+        wsm.warpPlayer(world, u, uuid);
+        verify(im).isSafeLocation(any());
+        // A block change next to the sign clears it
+        wsm.clearDestinations(world, 24, 26);
+        wsm.warpPlayer(world, u, uuid);
+        verify(im, times(2)).isSafeLocation(any());
+    }
+
+    /**
+     * Test method for {@link world.bentobox.warps.WarpSignsManager#warpPlayer(org.bukkit.World, world.bentobox.bentobox.api.user.User, java.util.UUID)}.
+     */
+    @Test
+    public void testWarpPlayerDestinationCachedSignGone() {
+        Player p = mock(Player.class);
+        when(p.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(p.getWorld()).thenReturn(world);
+        when(p.getLocation()).thenReturn(location);
+        @Nullable
+        User u = User.getInstance(p);
+        wsm.warpPlayer(world, u, uuid);
+        // The sign is removed without a block event
+        when(block.getType()).thenReturn(Material.STONE);
+        wsm.warpPlayer(world, u, uuid);
+        verify(p).sendMessage("warps.error.does-not-exist");
+        assertFalse(wsm.hasWarp(world, uuid));
+    }
+
     /**
      * Test method for {@link world.bentobox.warps.WarpSignsManager#hasWarp(org.bukkit.World, java.util.UUID)}.
      */
@@ -4,6 +4,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -25,6 +27,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
@@ -114,6 +117,12 @@ public class WarpCommandTest {
         set.add(UUID.randomUUID());
         set.add(UUID.randomUUID());
         when(wsm.listWarps(world)).thenReturn(set);
+        when(wsm.hasWarps(world)).thenReturn(true);
+        // Only tastybento has a warp that can be found by name
+        UUID found = set.iterator().next();
+        when(wsm.findWarp(eq(world), anyString())).thenAnswer((Answer<UUID>) invocation ->
+        "tastybento".startsWith(invocation.getArgument(1, String.class).toLowerCase()) ? found : null);
+        when(wsm.preloadWarp(any(), any())).thenReturn(() -> {});
 
         // Players Manager
         when(plugin.getPlayers()).thenReturn(pm);
@@ -197,6 +206,8 @@ public class WarpCommandTest {
     public void testExecuteUserStringListOfStringKnownPlayerWarp() {
         warpCommandWarp();
         assertTrue(wc.execute(user, "warp", Collections.singletonList("tastybento")));
+        // The destination is loaded during the delay
+        verify(wsm).preloadWarp(eq(world), any());
     }
 
     /**
@@ -235,6 +246,7 @@ public class WarpCommandTest {
     @Test
     public void testExecuteUserStringListOfStringNoWarpsYet() {
         when(wsm.listWarps(world)).thenReturn(Collections.emptySet());
+        when(wsm.hasWarps(world)).thenReturn(false);
         warpCommandWarpCompositeCommand();
         assertFalse(wc.execute(user, "warp", Collections.singletonList("LSPVicky")));
         verify(user).sendMessage("warps.error.no-warps-yet");
@@ -247,10 +259,9 @@ public class WarpCommandTest {
     @Test
     public void testTabCompleteUserStringListOfString() {
         warpCommandWarpCompositeCommand();
+        when(wsm.getWarpNames(world, "tas")).thenReturn(List.of("tastybento"));
         List<String> op = wc.tabComplete(user, "warp", Collections.singletonList("tas")).get();
-        assertEquals("tastybento", op.get(0));
-        assertEquals("tastybento", op.get(1));
-        assertEquals("poslovich", op.get(2));
+        assertEquals(List.of("tastybento"), op);
     }
 
 }
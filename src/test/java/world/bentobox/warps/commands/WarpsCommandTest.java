@@ -98,6 +98,7 @@ public class WarpsCommandTest {
         set.add(UUID.randomUUID());
         set.add(UUID.randomUUID());
         when(wsm.listWarps(world)).thenReturn(set);
+        when(wsm.hasWarps(world)).thenReturn(true);
 
         // Warp Panel Manager
         when(addon.getWarpPanelManager()).thenReturn(wpm);
@@ -143,6 +144,7 @@ public class WarpsCommandTest {
     @Test
     public void testExecuteUserStringListOfStringNoWarpsYet() {
         when(wsm.listWarps(world)).thenReturn(Collections.emptySet());
+        when(wsm.hasWarps(world)).thenReturn(false);
         warpCommandWarpsCompositeCommand();
         assertFalse(wc.execute(user, "warps", Collections.emptyList()));
         verify(user).sendMessage("warps.error.no-warps-yet");
@@ -155,6 +157,7 @@ public class WarpsCommandTest {
     @Test
     public void testExecuteUserStringListOfStringNoWarpsYetNoAddon() {
         when(wsm.listWarps(world)).thenReturn(Collections.emptySet());
+        when(wsm.hasWarps(world)).thenReturn(false);
         warpCommandWarps();
         assertFalse(wc.execute(user, "warps", Collections.emptyList()));
         verify(user).sendMessage("warps.error.no-warps-yet");
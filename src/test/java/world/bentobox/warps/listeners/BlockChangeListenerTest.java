@@ -0,0 +1,83 @@
+package world.bentobox.warps.listeners;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import world.bentobox.warps.Warp;
+import world.bentobox.warps.WarpSignsManager;
+
+/**
+ * @author tastybento
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BlockChangeListenerTest {
+
+    @Mock
+    private Warp addon;
+    @Mock
+    private WarpSignsManager wsm;
+    @Mock
+    private World world;
+
+    private BlockChangeListener bcl;
+
+    @Before
+    public void setUp() {
+        when(addon.getWarpSignsManager()).thenReturn(wsm);
+        bcl = new BlockChangeListener(addon);
+    }
+
+    private Block block(int x, int z) {
+        Block b = mock(Block.class);
+        when(b.getWorld()).thenReturn(world);
+        when(b.getX()).thenReturn(x);
+        when(b.getZ()).thenReturn(z);
+        return b;
+    }
+
+    /**
+     * Test method for {@link BlockChangeListener#onPistonExtend(BlockPistonExtendEvent)}.
+     */
+    @Test
+    public void testOnPistonExtend() {
+        Block piston = mock(Block.class);
+        Block head = block(1, 0);
+        when(piston.getRelative(BlockFace.EAST)).thenReturn(head);
+        Block moved = block(2, 0);
+        Block target = block(3, 0);
+        when(moved.getRelative(BlockFace.EAST)).thenReturn(target);
+        bcl.onPistonExtend(new BlockPistonExtendEvent(piston, List.of(moved), BlockFace.EAST));
+        verify(wsm).clearDestinations(world, 1, 0);
+        verify(wsm).clearDestinations(world, 2, 0);
+        verify(wsm).clearDestinations(world, 3, 0);
+    }
+
+    /**
+     * Test method for {@link BlockChangeListener#onStructureGrow(StructureGrowEvent)}.
+     */
+    @Test
+    public void testOnStructureGrow() {
+        BlockState state = mock(BlockState.class);
+        when(state.getX()).thenReturn(5);
+        when(state.getZ()).thenReturn(6);
+        bcl.onStructureGrow(new StructureGrowEvent(new Location(world, 5, 64, 6), null, false, null, List.of(state)));
+        verify(wsm).clearDestinations(world, 5, 6);
+    }
+}
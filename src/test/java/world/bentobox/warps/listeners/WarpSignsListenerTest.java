@@ -50,7 +50,9 @@ import world.bentobox.bentobox.managers.IslandsManager;
 import world.bentobox.bentobox.managers.LocalesManager;
 import world.bentobox.bentobox.managers.PlaceholdersManager;
 import world.bentobox.bentobox.util.Util;
+import world.bentobox.warps.SignCacheItem;
 import world.bentobox.warps.Warp;
+import world.bentobox.warps.WarpPanelManager;
 import world.bentobox.warps.WarpSignsManager;
 import world.bentobox.warps.config.Settings;
 
@@ -83,6 +85,8 @@ public class WarpSignsListenerTest {
     private IslandsManager im;
     @Mock
     private IslandWorldManager iwm;
+    @Mock
+    private WarpPanelManager wpm;
 
     @Before
     public void setUp() {
@@ -121,6 +125,7 @@ public class WarpSignsListenerTest {
         when(block.getState()).thenReturn(s);
         // warp signs manager
         when(addon.getWarpSignsManager()).thenReturn(wsm);
+        when(addon.getWarpPanelManager()).thenReturn(wpm);
         Map<UUID, Location> list = new HashMap<>();
         Location location = mock(Location.class);
         when(location.getBlock()).thenReturn(block);
@@ -129,6 +134,7 @@ public class WarpSignsListenerTest {
         list.put(uuid, location);
         // Player is in world
         when(wsm.getWarpMap(world)).thenReturn(list);
+        when(wsm.getWarpOwnerUUID(location)).thenReturn(Optional.of(uuid));
         //Player has a warp sign already here
         when(wsm.getWarp(any(), any())).thenReturn(location);
         // Unique spot
@@ -223,7 +229,7 @@ public class WarpSignsListenerTest {
         when(s.getLocation()).thenReturn(mock(Location.class));
         wsl.onSignBreak(e);
         assertFalse(e.isCancelled());
-        verify(wsm).getWarpMap(world);
+        verify(wsm).getWarpOwnerUUID(any());
         verify(s).getLocation();
     }
 
@@ -387,5 +393,37 @@ public class WarpSignsListenerTest {
         verify(s).setLine(0, ChatColor.RED + "[WELCOME]");
     }
 
+    @Test
+    public void testOnSignChangeRefreshesCache() {
+        SignCacheItem item = new SignCacheItem();
+        when(wsm.getSignInfo(any(), any(), any(), any())).thenReturn(item);
+        lines[0] = ChatColor.GREEN + "[WELCOME]";
+        WarpSignsListener wsl = new WarpSignsListener(addon);
+        SignChangeEvent e = new SignChangeEvent(block, player, lines);
+        wsl.onSignChange(e);
+        verify(wsm).getSignInfo(world, player.getUniqueId(), lines, block.getType());
+        verify(wpm).updateSign(world, player.getUniqueId(), item);
+        verify(block, never()).getState();
+    }
+
+    @Test
+    public void testOnSignChangeDeactivatedSign() {
+        lines[0] = ChatColor.RED + "[WELCOME]";
+        WarpSignsListener wsl = new WarpSignsListener(addon);
+        SignChangeEvent e = new SignChangeEvent(block, player, lines);
+        wsl.onSignChange(e);
+        verify(wpm).removeWarp(world, player.getUniqueId());
+        verify(wpm, never()).updateSign(any(), any(), any());
+    }
+
+    @Test
+    public void testOnSignChangeNotWarpSign() {
+        when(wsm.getWarpOwnerUUID(any())).thenReturn(Optional.empty());
+        WarpSignsListener wsl = new WarpSignsListener(addon);
+        SignChangeEvent e = new SignChangeEvent(block, player, lines);
+        wsl.onSignChange(e);
+        verify(wpm, never()).updateSign(any(), any(), any());
+        verify(wpm, never()).removeWarp(any(), any());
+    }
 
 }
@@ -0,0 +1,107 @@
+package world.bentobox.warps.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author tastybento
+ *
+ */
+public class NameIndexTest {
+
+    private final UUID tasty = UUID.randomUUID();
+    private final UUID tastier = UUID.randomUUID();
+    private final UUID bonne = UUID.randomUUID();
+    private NameIndex index;
+
+    /**
+     */
+    @Before
+    public void setUp() {
+        index = NameIndex.EMPTY.with(tasty, "tastybento").with(bonne, "BONNe").with(tastier, "Tasty");
+    }
+
+    /**
+     * Test method for {@link NameIndex#getExact(String)}.
+     */
+    @Test
+    public void testGetExact() {
+        assertEquals(3, index.size());
+        assertEquals(tasty, index.getExact("TastyBento"));
+        assertEquals(tastier, index.getExact("tasty"));
+        assertEquals(bonne, index.getExact("bonne"));
+        assertNull(index.getExact("tastyb"));
+    }
+
+    /**
+     * Test method for {@link NameIndex#getFirst(String)}.
+     */
+    @Test
+    public void testGetFirst() {
+        assertEquals(tastier, index.getFirst("TAS"));
+        assertEquals(tasty, index.getFirst("tastyb"));
+        assertEquals(bonne, index.getFirst("b"));
+        assertNull(index.getFirst("poslovich"));
+    }
+
+    /**
+     * Test method for {@link NameIndex#find(String)}.
+     */
+    @Test
+    public void testFind() {
+        assertEquals(tastier, index.find("tasty"));
+        assertEquals(tasty, index.find("tastyBE"));
+        assertNull(index.find("joe"));
+    }
+
+    /**
+     * Test method for {@link NameIndex#withAll(Map)}.
+     */
+    @Test
+    public void testWithAll() {
+        UUID poslovich = UUID.randomUUID();
+        UUID joe = UUID.randomUUID();
+        NameIndex added = index.withAll(Map.of(poslovich, "Poslovich", joe, "joe"));
+        assertEquals(5, added.size());
+        assertEquals(List.of("BONNe", "joe", "Poslovich", "Tasty", "tastybento"), added.getNames("", 10));
+        assertEquals(tastier, added.find("tasty"));
+        assertEquals(joe, added.find("J"));
+        // The old index is not changed
+        assertNull(index.find("joe"));
+        assertSame(index, index.withAll(Map.of()));
+    }
+
+    /**
+     * Test method for {@link NameIndex#without(UUID, String)}.
+     */
+    @Test
+    public void testWithout() {
+        NameIndex removed = index.without(tastier, "Tasty");
+        assertEquals(2, removed.size());
+        assertEquals(tasty, removed.find("tasty"));
+        // The old index is not changed
+        assertEquals(tastier, index.find("tasty"));
+        // Removing an owner that is not there gives the same index
+        assertSame(removed, removed.without(tastier, "Tasty"));
+    }
+
+    /**
+     * Test method for {@link NameIndex#getNames(String, int)}.
+     */
+    @Test
+    public void testGetNames() {
+        assertEquals(List.of("Tasty", "tastybento"), index.getNames("TA", 10));
+        assertEquals(List.of("Tasty"), index.getNames("ta", 1));
+        assertEquals(List.of("BONNe", "Tasty", "tastybento"), index.getNames("", 10));
+        assertTrue(index.getNames("x", 10).isEmpty());
+    }
+}
@@ -0,0 +1,128 @@
+package world.bentobox.warps.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import world.bentobox.bentobox.util.Util;
+import world.bentobox.warps.registry.WarpChangeFeed.Change;
+import world.bentobox.warps.registry.WarpChangeFeed.Type;
+
+/**
+ * @author tastybento
+ *
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Util.class})
+public class WarpChangeFeedTest {
+
+    @Mock
+    private World world;
+
+    private final UUID uuid = UUID.randomUUID();
+    private WarpRegistry registry;
+    private WarpChangeFeed feed;
+
+    /**
+     */
+    @Before
+    public void setUp() {
+        PowerMockito.mockStatic(Util.class);
+        when(Util.getWorld(any())).thenAnswer((Answer<World>) invocation -> invocation.getArgument(0, World.class));
+        registry = new WarpRegistry();
+        feed = registry.getFeed();
+    }
+
+    /**
+     * Test method for {@link WarpChangeFeed#read(long, int)}.
+     */
+    @Test
+    public void testRead() {
+        UUID other = UUID.randomUUID();
+        long cursor = feed.getLatest();
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        registry.put(uuid, new Location(world, 4, 5, 6));
+        // Replaces the other warp
+        registry.put(other, new Location(world, 4, 5, 6));
+        registry.remove(world, other);
+        WarpChangeFeed.Batch batch = feed.read(cursor, 10);
+        assertFalse(batch.resync());
+        List<Change> changes = batch.changes();
+        assertEquals(5, changes.size());
+        assertEquals(Type.ADDED, changes.get(0).getType());
+        assertNull(changes.get(0).getFrom());
+        assertEquals(Type.MOVED, changes.get(1).getType());
+        assertEquals(new Location(world, 1, 2, 3), changes.get(1).getFrom());
+        assertEquals(new Location(world, 4, 5, 6), changes.get(1).getLocation());
+        assertEquals(Type.REMOVED, changes.get(2).getType());
+        assertEquals(uuid, changes.get(2).getOwner());
+        assertEquals(Type.ADDED, changes.get(3).getType());
+        assertEquals(Type.REMOVED, changes.get(4).getType());
+        assertEquals(other, changes.get(4).getOwner());
+        // Sequence numbers go up by one
+        for (int i = 0; i < changes.size(); i++) {
+            assertEquals(cursor + i + 1, changes.get(i).getSequence());
+        }
+        assertEquals(feed.getLatest(), batch.cursor());
+        assertTrue(feed.read(batch.cursor(), 10).changes().isEmpty());
+    }
+
+    /**
+     * Test method for {@link WarpChangeFeed#read(long, int)}.
+     */
+    @Test
+    public void testReadInPages() {
+        for (int i = 0; i < 5; i++) {
+            registry.put(UUID.randomUUID(), new Location(world, i, 0, 0));
+        }
+        WarpChangeFeed.Batch batch = feed.read(0, 3);
+        assertEquals(3, batch.changes().size());
+        batch = feed.read(batch.cursor(), 3);
+        assertEquals(2, batch.changes().size());
+        assertEquals(5, batch.cursor());
+    }
+
+    /**
+     * Test method for {@link WarpChangeFeed#read(long, int)}.
+     */
+    @Test
+    public void testReadFallenBehind() {
+        for (int i = 0; i <= feed.getCapacity(); i++) {
+            registry.put(UUID.randomUUID(), new Location(world, i, 0, 0));
+        }
+        WarpChangeFeed.Batch batch = feed.read(0, 10);
+        assertTrue(batch.resync());
+        assertEquals(feed.getLatest(), batch.cursor());
+        // The oldest kept change can still be read from
+        assertFalse(feed.read(1, 10).resync());
+    }
+
+    /**
+     * Test method for {@link WarpChangeFeed#read(long, int)}.
+     */
+    @Test
+    public void testReadAfterClear() {
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        long cursor = feed.getLatest();
+        registry.clear();
+        assertTrue(feed.read(cursor, 10).resync());
+        assertFalse(feed.read(feed.getLatest(), 10).resync());
+    }
+}
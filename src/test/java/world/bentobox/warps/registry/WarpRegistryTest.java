@@ -0,0 +1,330 @@
+package world.bentobox.warps.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import world.bentobox.bentobox.util.Util;
+
+/**
+ * @author tastybento
+ *
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Util.class})
+public class WarpRegistryTest {
+
+    @Mock
+    private World world;
+    @Mock
+    private World nether;
+
+    private final UUID uuid = UUID.randomUUID();
+    private WarpRegistry registry;
+
+    /**
+     */
+    @Before
+    public void setUp() {
+        PowerMockito.mockStatic(Util.class);
+        // The nether belongs to the same game mode as the overworld
+        when(Util.getWorld(any())).thenAnswer((Answer<World>) invocation ->
+        invocation.getArgument(0, World.class) == nether ? world : invocation.getArgument(0, World.class));
+        registry = new WarpRegistry();
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#pack(int, int, int)}.
+     */
+    @Test
+    public void testPackUnpack() {
+        long position = WarpRegistry.pack(-29_999_999, -64, 29_999_999);
+        assertEquals(-29_999_999, WarpRegistry.unpackX(position));
+        assertEquals(-64, WarpRegistry.unpackY(position));
+        assertEquals(29_999_999, WarpRegistry.unpackZ(position));
+        position = WarpRegistry.pack(17, 319, -1);
+        assertEquals(17, WarpRegistry.unpackX(position));
+        assertEquals(319, WarpRegistry.unpackY(position));
+        assertEquals(-1, WarpRegistry.unpackZ(position));
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#put(UUID, Location)}.
+     */
+    @Test
+    public void testPutGet() {
+        registry.put(uuid, new Location(world, -5, 70, 33));
+        assertEquals(new Location(world, -5, 70, 33), registry.get(world, uuid));
+        assertEquals(new Location(world, -5, 70, 33), registry.get(nether, uuid));
+        assertEquals(uuid, registry.getOwner(new Location(world, -5, 70, 33)));
+        assertNull(registry.getOwner(new Location(nether, -5, 70, 33)));
+        assertEquals(1, registry.size(world));
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#put(UUID, Location)}.
+     */
+    @Test
+    public void testPutMovesWarpInGameMode() {
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        registry.put(uuid, new Location(nether, 4, 5, 6));
+        assertEquals(new Location(nether, 4, 5, 6), registry.get(world, uuid));
+        assertNull(registry.getOwner(new Location(world, 1, 2, 3)));
+        assertEquals(1, registry.size(world));
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#put(UUID, Location)}.
+     */
+    @Test
+    public void testPutReplacesWarpAtSameSpot() {
+        UUID other = UUID.randomUUID();
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        registry.put(other, new Location(world, 1, 2, 3));
+        assertFalse(registry.contains(world, uuid));
+        assertEquals(other, registry.getOwner(new Location(world, 1, 2, 3)));
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#remove(World, UUID)}.
+     */
+    @Test
+    public void testRemove() {
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        assertEquals(new Location(world, 1, 2, 3), registry.remove(world, uuid));
+        assertNull(registry.remove(world, uuid));
+        assertFalse(registry.contains(world, uuid));
+        assertNull(registry.getOwner(new Location(world, 1, 2, 3)));
+        assertTrue(registry.getOwners(world).isEmpty());
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#getWarpsInChunk(World, int, int)}.
+     */
+    @Test
+    public void testGetWarpsInChunk() {
+        UUID other = UUID.randomUUID();
+        registry.put(uuid, new Location(world, -1, 2, 15));
+        registry.put(other, new Location(world, -16, 2, 0));
+        assertTrue(registry.hasWarpsInChunk(world, -1, 0));
+        assertEquals(2, registry.getWarpsInChunk(world, -1, 0).size());
+        registry.remove(world, uuid);
+        assertEquals(Collections.singleton(other), registry.getWarpsInChunk(world, -1, 0));
+        registry.remove(world, other);
+        assertFalse(registry.hasWarpsInChunk(world, -1, 0));
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#snapshot(World)}.
+     */
+    @Test
+    public void testSnapshot() {
+        assertTrue(registry.snapshot(world).isEmpty());
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        WarpSnapshot snapshot = registry.snapshot(world);
+        assertSame(snapshot, registry.snapshot(nether));
+        assertEquals(1, snapshot.size());
+        assertEquals(uuid, snapshot.getOwner(0));
+        assertEquals(new Location(world, 1, 2, 3), snapshot.getLocation(0));
+        // A change publishes a new version and leaves the old snapshot alone
+        registry.remove(world, uuid);
+        WarpSnapshot next = registry.snapshot(world);
+        assertTrue(next.getVersion() > snapshot.getVersion());
+        assertTrue(next.isEmpty());
+        assertEquals(Collections.singleton(uuid), snapshot.getOwners());
+    }
+
+    /**
+     * Test method for {@link WarpSnapshot#toMap()}.
+     */
+    @Test
+    public void testSnapshotToMapBuiltOnce() {
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        WarpSnapshot snapshot = registry.snapshot(world);
+        Map<UUID, Location> map = snapshot.toMap();
+        assertEquals(Map.of(uuid, new Location(world, 1, 2, 3)), map);
+        assertSame(map, snapshot.toMap());
+        assertSame(map, registry.getWarps(world));
+        // A change publishes a new snapshot with its own map
+        registry.remove(world, uuid);
+        assertTrue(registry.getWarps(world).isEmpty());
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#getSorted(World)}.
+     */
+    @Test
+    public void testGetSorted() {
+        UUID other = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        Map<UUID, Long> lastPlayed = Map.of(uuid, 100L, other, 300L, third, 200L);
+        registry = new WarpRegistry(lastPlayed::get);
+        assertTrue(registry.getSorted(world).isEmpty());
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        registry.put(other, new Location(nether, 1, 2, 3));
+        registry.put(third, new Location(world, 4, 5, 6));
+        assertEquals(List.of(other, third, uuid), registry.getSorted(world));
+        // Joining moves the player to the front
+        registry.setLastPlayed(uuid, 400L);
+        assertEquals(List.of(uuid, other, third), registry.getSorted(nether));
+        // Removed and replaced warps leave the ranking
+        registry.remove(world, other);
+        registry.put(uuid, new Location(world, 4, 5, 6));
+        assertEquals(List.of(uuid), registry.getSorted(world));
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#getSorted(World, int)}.
+     */
+    @Test
+    public void testGetSortedLimit() {
+        registry = new WarpRegistry();
+        for (int i = 0; i < 10; i++) {
+            UUID owner = new UUID(0, i);
+            registry.put(owner, new Location(world, i, 0, 0));
+            registry.setLastPlayed(owner, i * 10L);
+        }
+        // The most recent three are kept, most recent first
+        assertEquals(List.of(new UUID(0, 9), new UUID(0, 8), new UUID(0, 7)), registry.getSorted(world, 3));
+        assertEquals(10, registry.getSorted(world, 600).size());
+        assertTrue(registry.getSorted(world, 0).isEmpty());
+        // A change to the ranking is seen by the next read
+        registry.setLastPlayed(new UUID(0, 0), 1000L);
+        assertEquals(List.of(new UUID(0, 0), new UUID(0, 9), new UUID(0, 8)), registry.getSorted(world, 3));
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#setLastPlayed(UUID, long)} and {@link WarpRegistry#setName(UUID, String)}.
+     */
+    @Test
+    public void testOnlyOwnersKept() {
+        UUID other = UUID.randomUUID();
+        Map<UUID, Long> lookup = Map.of(uuid, 10L, other, 50L);
+        registry = new WarpRegistry(lookup::get);
+        // Players without warps are not recorded
+        registry.setLastPlayed(other, 500L);
+        registry.setName(other, "BONNe");
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        registry.put(other, new Location(world, 4, 5, 6));
+        assertEquals(List.of(other, uuid), registry.getSorted(world));
+        assertEquals(Set.of(uuid, other), registry.getUnnamed());
+        registry.setLastPlayed(uuid, 400L);
+        registry.setName(uuid, "tastybento");
+        assertEquals(List.of(uuid, other), registry.getSorted(world));
+        // Moving a warp keeps the time and name
+        registry.put(uuid, new Location(nether, 1, 2, 3));
+        assertEquals(List.of(uuid, other), registry.getSorted(world));
+        assertEquals(uuid, registry.getNames(world).find("tasty"));
+        // Both are dropped with the last warp
+        registry.remove(world, uuid);
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        assertEquals(List.of(other, uuid), registry.getSorted(world));
+        assertEquals(Set.of(uuid, other), registry.getUnnamed());
+        // And when the warp is replaced by another owner's
+        registry.setName(uuid, "tastybento");
+        registry.setName(other, "BONNe");
+        assertTrue(registry.getUnnamed().isEmpty());
+        registry.put(uuid, new Location(world, 4, 5, 6));
+        registry.put(other, new Location(world, 7, 8, 9));
+        assertEquals(Set.of(other), registry.getUnnamed());
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#getNames(World)}.
+     */
+    @Test
+    public void testGetNames() {
+        UUID other = UUID.randomUUID();
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        registry.put(other, new Location(nether, 1, 2, 3));
+        // Names are not looked up
+        assertEquals(Set.of(uuid, other), registry.getUnnamed());
+        assertNull(registry.getNames(world).find("tasty"));
+        registry.setName(uuid, "tastybento");
+        registry.setNameIfAbsent(other, "BONNe");
+        assertTrue(registry.getUnnamed().isEmpty());
+        // A name that is already known is kept
+        registry.setNameIfAbsent(uuid, "Joe");
+        assertEquals(uuid, registry.getNames(world).find("Tasty"));
+        assertEquals(other, registry.getNames(nether).find("bonne"));
+        // Name change
+        registry.setName(uuid, "Poslovich");
+        assertNull(registry.getNames(world).find("tasty"));
+        assertEquals(uuid, registry.getNames(world).find("pos"));
+        // Removed warps cannot be found
+        registry.remove(world, other);
+        assertNull(registry.getNames(world).find("bonne"));
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#setNamesIfAbsent(Map)}.
+     */
+    @Test
+    public void testSetNamesIfAbsent() {
+        UUID other = UUID.randomUUID();
+        UUID noWarp = UUID.randomUUID();
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        registry.put(other, new Location(nether, 1, 2, 3));
+        registry.setName(uuid, "tastybento");
+        registry.setNamesIfAbsent(Map.of(uuid, "Joe", other, "BONNe", noWarp, "Poslovich"));
+        assertTrue(registry.getUnnamed().isEmpty());
+        assertEquals(uuid, registry.getNames(world).find("tasty"));
+        assertNull(registry.getNames(world).find("joe"));
+        assertEquals(other, registry.getNames(nether).find("bonne"));
+        assertNull(registry.getNames(world).find("pos"));
+        assertEquals(2, registry.getNames(world).size());
+    }
+
+    /**
+     * Test method for {@link WarpRegistry#getChangesSince(World, long)}.
+     */
+    @Test
+    public void testGetChangesSince() {
+        UUID other = UUID.randomUUID();
+        assertTrue(registry.getChangesSince(world, 0).isEmpty());
+        registry.put(uuid, new Location(world, 1, 2, 3));
+        long version = registry.getVersion(world);
+        registry.put(other, new Location(nether, 4, 5, 6));
+        registry.remove(world, uuid);
+        List<WarpDelta> changes = registry.getChangesSince(world, version);
+        assertEquals(2, changes.size());
+        assertEquals(other, changes.get(0).getOwner());
+        assertFalse(changes.get(0).isRemoved());
+        assertEquals(new Location(nether, 4, 5, 6), changes.get(0).getLocation());
+        assertEquals(uuid, changes.get(1).getOwner());
+        assertTrue(changes.get(1).isRemoved());
+        assertEquals(registry.getVersion(world), changes.get(1).getVersion());
+        assertTrue(registry.getChangesSince(world, registry.getVersion(world)).isEmpty());
+        // Old changes are dropped
+        for (int i = 0; i < WarpRegistry.HISTORY_SIZE; i++) {
+            registry.put(other, new Location(world, i, 0, 0));
+        }
+        assertNull(registry.getChangesSince(world, version));
+        // Clearing means readers have to start again
+        version = registry.getVersion(world);
+        registry.clear();
+        assertNull(registry.getChangesSince(world, version));
+    }
+}